@@ -0,0 +1,58 @@
+package ai2018.group18.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BOA agent of a tournament: the class names of its four components and the parameters that all of them receive.
+ * Classes in the default package are given by their simple name.
+ */
+final class AgentConfiguration {
+    final String name;
+    final String offeringStrategy;
+    final String acceptanceStrategy;
+    final String opponentModel;
+    final String omStrategy;
+    final Map<String, Double> parameters = new HashMap<>();
+
+    /**
+     * @param name name of the agent in the results
+     * @param offeringStrategy class name of the bidding strategy
+     * @param acceptanceStrategy class name of the acceptance strategy
+     * @param opponentModel class name of the opponent model
+     * @param omStrategy class name of the opponent model strategy
+     */
+    AgentConfiguration(String name, String offeringStrategy, String acceptanceStrategy, String opponentModel,
+                       String omStrategy) {
+        this.name = name;
+        this.offeringStrategy = offeringStrategy;
+        this.acceptanceStrategy = acceptanceStrategy;
+        this.opponentModel = opponentModel;
+        this.omStrategy = omStrategy;
+    }
+
+    /**
+     * @param key
+     * @param value
+     * @return this configuration
+     */
+    AgentConfiguration withParameter(String key, double value) {
+        parameters.put(key, value);
+        return this;
+    }
+
+    /**
+     * @param name name of the agent in the results
+     * @param components class names of the bidding strategy, acceptance strategy, opponent model and opponent model
+     *                   strategy, separated by commas
+     * @return configuration without parameters
+     */
+    static AgentConfiguration parse(String name, String components) {
+        String[] classNames = components.split(",");
+        if (classNames.length != 4) {
+            throw new IllegalArgumentException("Expected BS,AS,OM,OMS for agent " + name + ", got " + components);
+        }
+        return new AgentConfiguration(name, classNames[0].trim(), classNames[1].trim(), classNames[2].trim(),
+                classNames[3].trim());
+    }
+}
@@ -0,0 +1,199 @@
+package ai2018.group18.bench;
+
+import genius.core.Bid;
+import genius.core.boaframework.Actions;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.utility.AdditiveUtilitySpace;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * In-process stand-in for the stacked alternating offers protocol of Genius with a deadline in rounds. The first
+ * agent opens, each agent accepts the last offer, walks away or makes a counter offer, and a round ends after both
+ * agents acted. An agent that throws ends the session without agreement.
+ * <p>
+ * A session runs either on the calling thread, or with every agent on its own thread, where an agent hands the
+ * turn to its opponent with its offer and waits until the turn comes back.
+ */
+final class AlternatingOffersSession {
+    private final AgentConfiguration first;
+    private final AgentConfiguration second;
+    private final AdditiveUtilitySpace firstProfile;
+    private final AdditiveUtilitySpace secondProfile;
+    private final int rounds;
+
+    /**
+     * Outcome of a session, the utilities are undiscounted and 0 without agreement
+     */
+    static final class Result {
+        final String firstAgent;
+        final String secondAgent;
+        final boolean agreement;
+        final int rounds;
+        final double firstUtility;
+        final double secondUtility;
+        final long nanos;
+        final String error;
+
+        Result(String firstAgent, String secondAgent, boolean agreement, int rounds, double firstUtility,
+               double secondUtility, long nanos, String error) {
+            this.firstAgent = firstAgent;
+            this.secondAgent = secondAgent;
+            this.agreement = agreement;
+            this.rounds = rounds;
+            this.firstUtility = firstUtility;
+            this.secondUtility = secondUtility;
+            this.nanos = nanos;
+            this.error = error;
+        }
+    }
+
+    /**
+     * @param first agent that opens
+     * @param second agent that responds
+     * @param firstProfile profile of the first agent
+     * @param secondProfile profile of the second agent, on the same domain
+     * @param rounds deadline in rounds
+     */
+    AlternatingOffersSession(AgentConfiguration first, AgentConfiguration second, AdditiveUtilitySpace firstProfile,
+                             AdditiveUtilitySpace secondProfile, int rounds) {
+        this.first = first;
+        this.second = second;
+        this.firstProfile = firstProfile;
+        this.secondProfile = secondProfile;
+        this.rounds = rounds;
+    }
+
+    /**
+     * @return outcome of the negotiation
+     */
+    Result run() {
+        long start = System.nanoTime();
+        DiscreteTimeline timeline = new DiscreteTimeline(rounds);
+        int round = 0;
+        try {
+            BoaParty[] parties = {new BoaParty(first, firstProfile, timeline),
+                    new BoaParty(second, secondProfile, timeline)};
+            Bid lastOffer = null;
+            for (round = 1; round <= rounds; round++) {
+                for (int turn = 0; turn < 2; turn++) {
+                    BoaParty party = parties[turn];
+                    Actions action = party.chooseAction();
+                    if (action == Actions.Accept) {
+                        return result(true, round, lastOffer, start, null);
+                    } else if (action == Actions.Break) {
+                        return result(false, round, null, start, null);
+                    }
+                    lastOffer = party.getLastOffer();
+                    parties[1 - turn].receiveOffer(lastOffer);
+                }
+                timeline.increment();
+            }
+            return result(false, rounds, null, start, null);
+        } catch (Exception e) {
+            return result(false, round, null, start, e.toString());
+        }
+    }
+
+    /**
+     * Start the session with each agent on its own thread from the factory. The agents take turns by handing
+     * their offer to the other thread, so only one of them runs at a time.
+     * @param threadFactory factory of the agent threads, for example of virtual threads
+     * @return completed with the outcome when an agent accepts, walks away or throws, or at the deadline
+     */
+    CompletableFuture<Result> start(ThreadFactory threadFactory) {
+        CompletableFuture<Result> outcome = new CompletableFuture<>();
+        DiscreteTimeline timeline = new DiscreteTimeline(rounds);
+        long start = System.nanoTime();
+        BlockingQueue<Turn> firstTurns = new ArrayBlockingQueue<>(1);
+        BlockingQueue<Turn> secondTurns = new ArrayBlockingQueue<>(1);
+        firstTurns.add(new Turn(null, false));
+        threadFactory.newThread(() -> takeTurns(first, firstProfile, timeline, false, firstTurns, secondTurns,
+                outcome, start)).start();
+        threadFactory.newThread(() -> takeTurns(second, secondProfile, timeline, true, secondTurns, firstTurns,
+                outcome, start)).start();
+        return outcome;
+    }
+
+    /**
+     * Turn of an agent: the offer of the opponent, none for the opening bid, or the end of the session
+     */
+    private static final class Turn {
+        final Bid offer;
+        final boolean end;
+
+        Turn(Bid offer, boolean end) {
+            this.offer = offer;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Body of an agent thread. The responding agent ends every round; the handoff through the queues orders all
+     * accesses to the shared timeline.
+     */
+    private void takeTurns(AgentConfiguration configuration, AdditiveUtilitySpace profile, DiscreteTimeline timeline,
+                           boolean endsRound, BlockingQueue<Turn> turns, BlockingQueue<Turn> opponentTurns,
+                           CompletableFuture<Result> outcome, long start) {
+        int round = 1;
+        Bid lastOffer = null;
+        try {
+            BoaParty party = new BoaParty(configuration, profile, timeline);
+            while (true) {
+                Turn turn = turns.take();
+                if (turn.end) {
+                    return;
+                }
+                if (turn.offer != null) {
+                    party.receiveOffer(turn.offer);
+                    lastOffer = turn.offer;
+                }
+
+                Actions action = party.chooseAction();
+                if (action != Actions.Reject) {
+                    outcome.complete(result(action == Actions.Accept, round, lastOffer, start, null));
+                    endOpponent(opponentTurns);
+                    return;
+                }
+                if (endsRound) {
+                    timeline.increment();
+                    if (round == rounds) {
+                        outcome.complete(result(false, rounds, null, start, null));
+                        endOpponent(opponentTurns);
+                        return;
+                    }
+                }
+                round++;
+                opponentTurns.put(new Turn(party.getLastOffer(), false));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            outcome.complete(result(false, round, null, start, e.toString()));
+            endOpponent(opponentTurns);
+        }
+    }
+
+    /**
+     * End the session for the opponent as well. Only this thread hands turns to the opponent, so once a turn that
+     * the opponent did not take yet is cleared, like the opening turn of an opponent that is still initializing,
+     * the end always fits in its queue.
+     * @param opponentTurns queue of the opponent
+     */
+    private static void endOpponent(BlockingQueue<Turn> opponentTurns) {
+        opponentTurns.clear();
+        if (!opponentTurns.offer(new Turn(null, true))) {
+            throw new IllegalStateException("The opponent could not be told that the session ended");
+        }
+    }
+
+    private Result result(boolean agreement, int round, Bid bid, long start, String error) {
+        double firstUtility = agreement ? firstProfile.getUtility(bid) : 0;
+        double secondUtility = agreement ? secondProfile.getUtility(bid) : 0;
+        return new Result(first.name, second.name, agreement, round, firstUtility, secondUtility,
+                System.nanoTime() - start, error);
+    }
+}
@@ -0,0 +1,157 @@
+package ai2018.group18.bench;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.AcceptanceStrategy;
+import genius.core.boaframework.NegotiationSession;
+import genius.core.boaframework.OMStrategy;
+import genius.core.boaframework.OfferingStrategy;
+import genius.core.boaframework.OpponentModel;
+import genius.core.boaframework.SessionData;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.uncertainty.UserModel;
+import genius.core.utility.AdditiveUtilitySpace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Negotiation session on a generated discrete domain, with random preference profiles for both sides and a history
+ * of opponent bids, so the BOA components can be benchmarked without running a Genius tournament.
+ */
+final class BenchmarkSession {
+    static final int ROUNDS = 1000;
+    final Domain domain;
+    final AdditiveUtilitySpace utilitySpace;
+    final AdditiveUtilitySpace opponentUtilitySpace;
+    final DiscreteTimeline timeline;
+    final NegotiationSession negotiationSession;
+    private final Random random;
+
+    /**
+     * @param issues amount of issues
+     * @param values amount of values of every issue
+     * @param seed seed of the profiles and the bids
+     */
+    BenchmarkSession(int issues, int values, long seed) {
+        this(new SyntheticDomainGenerator(issues, values, 1.0, seed), 0, ROUNDS, seed);
+    }
+
+    /**
+     * @param generator generator of the domain and both profiles
+     * @param rankingLength length of the bid ranking of the user model, 0 for a session without uncertainty
+     * @param rounds amount of rounds of the timeline
+     * @param seed seed of the bids
+     */
+    BenchmarkSession(SyntheticDomainGenerator generator, int rankingLength, int rounds, long seed) {
+        random = new Random(seed);
+        domain = generator.createDomain();
+        utilitySpace = generator.createProfile(domain);
+        opponentUtilitySpace = generator.createProfile(domain);
+        timeline = new DiscreteTimeline(rounds);
+        if (rankingLength > 0) {
+            UserModel userModel = new UserModel(generator.createRanking(utilitySpace, rankingLength));
+            negotiationSession = new NegotiationSession(new SessionData(), utilitySpace, timeline, null, userModel);
+        } else {
+            negotiationSession = new NegotiationSession(new SessionData(), utilitySpace, timeline);
+        }
+    }
+
+    /**
+     * @return random bid with its own utility
+     */
+    BidDetails randomBid() {
+        Bid bid = domain.getRandomBid(random);
+        return new BidDetails(bid, utilitySpace.getUtility(bid));
+    }
+
+    /**
+     * @param size amount of bids
+     * @return random bids, like a band of candidates
+     */
+    List<BidDetails> randomBids(int size) {
+        List<BidDetails> bids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            bids.add(randomBid());
+        }
+        return bids;
+    }
+
+    /**
+     * @param size amount of bids
+     * @return bids that an opponent could offer, the best of a few random bids for the opponent
+     */
+    List<BidDetails> opponentBids(int size) {
+        List<BidDetails> bids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Bid best = null;
+            for (int sample = 0; sample < 10; sample++) {
+                Bid bid = domain.getRandomBid(random);
+                if (best == null || opponentUtilitySpace.getUtility(bid) > opponentUtilitySpace.getUtility(best)) {
+                    best = bid;
+                }
+            }
+            bids.add(new BidDetails(best, utilitySpace.getUtility(best)));
+        }
+        return bids;
+    }
+
+    /**
+     * @param bidDetails bid of the opponent, added to the opponent bid history
+     */
+    void receiveOpponentBid(BidDetails bidDetails) {
+        negotiationSession.getOpponentBidHistory().add(bidDetails);
+    }
+
+    /**
+     * @param round round to move the timeline to, must not be before the current round
+     */
+    void moveToRound(int round) {
+        while (timeline.getCurrentTime() < round) {
+            timeline.increment();
+        }
+    }
+
+    /**
+     * Components of the default package cannot be imported, so they are created by name
+     * @param className
+     * @return new component
+     */
+    static OpponentModel newOpponentModel(String className) {
+        return newInstance(className, OpponentModel.class);
+    }
+
+    /**
+     * @param className
+     * @return new opponent model strategy
+     */
+    static OMStrategy newOMStrategy(String className) {
+        return newInstance(className, OMStrategy.class);
+    }
+
+    /**
+     * @param className
+     * @return new offering strategy
+     */
+    static OfferingStrategy newOfferingStrategy(String className) {
+        return newInstance(className, OfferingStrategy.class);
+    }
+
+    /**
+     * @param className
+     * @return new acceptance strategy
+     */
+    static AcceptanceStrategy newAcceptanceStrategy(String className) {
+        return newInstance(className, AcceptanceStrategy.class);
+    }
+
+    private static <T> T newInstance(String className, Class<T> type) {
+        try {
+            return type.cast(Class.forName(className).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + className, e);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package ai2018.group18.bench;
+
+import genius.core.Bid;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.AcceptanceStrategy;
+import genius.core.boaframework.Actions;
+import genius.core.boaframework.NegotiationSession;
+import genius.core.boaframework.NoModel;
+import genius.core.boaframework.OMStrategy;
+import genius.core.boaframework.OfferingStrategy;
+import genius.core.boaframework.OpponentModel;
+import genius.core.boaframework.SessionData;
+import genius.core.timeline.TimeLineInfo;
+import genius.core.utility.AdditiveUtilitySpace;
+
+import java.util.HashMap;
+
+/**
+ * One side of an in-process negotiation, with the turn logic of the Genius BOA agent: the bidding strategy
+ * determines the next bid first, then the acceptance strategy decides on the last offer of the opponent.
+ */
+final class BoaParty {
+    final AgentConfiguration configuration;
+    final AdditiveUtilitySpace utilitySpace;
+    private final NegotiationSession negotiationSession;
+    private final OpponentModel opponentModel;
+    private final OMStrategy omStrategy;
+    private final OfferingStrategy offeringStrategy;
+    private final AcceptanceStrategy acceptanceStrategy;
+    private Bid lastOffer;
+
+    /**
+     * Create and initialize the components in the order of Genius
+     * @param configuration components and parameters
+     * @param utilitySpace own preference profile
+     * @param timeline timeline shared with the opponent
+     * @throws Exception if a component fails to initialize
+     */
+    BoaParty(AgentConfiguration configuration, AdditiveUtilitySpace utilitySpace, TimeLineInfo timeline)
+            throws Exception {
+        this.configuration = configuration;
+        this.utilitySpace = utilitySpace;
+        negotiationSession = new NegotiationSession(new SessionData(), utilitySpace, timeline);
+
+        opponentModel = BenchmarkSession.newOpponentModel(configuration.opponentModel);
+        opponentModel.init(negotiationSession, new HashMap<>(configuration.parameters));
+        omStrategy = BenchmarkSession.newOMStrategy(configuration.omStrategy);
+        omStrategy.init(negotiationSession, opponentModel, new HashMap<>(configuration.parameters));
+        offeringStrategy = BenchmarkSession.newOfferingStrategy(configuration.offeringStrategy);
+        offeringStrategy.init(negotiationSession, opponentModel, omStrategy, new HashMap<>(configuration.parameters));
+        acceptanceStrategy = BenchmarkSession.newAcceptanceStrategy(configuration.acceptanceStrategy);
+        acceptanceStrategy.init(negotiationSession, offeringStrategy, opponentModel,
+                new HashMap<>(configuration.parameters));
+    }
+
+    /**
+     * @param bid offer of the opponent
+     */
+    void receiveOffer(Bid bid) {
+        BidDetails opponentBid = new BidDetails(bid, utilitySpace.getUtility(bid), negotiationSession.getTime());
+        negotiationSession.getOpponentBidHistory().add(opponentBid);
+        if (!(opponentModel instanceof NoModel) && omStrategy.canUpdateOM()) {
+            opponentModel.updateModel(bid);
+        }
+    }
+
+    /**
+     * @return Accept to accept the last offer of the opponent, Break to walk away, or Reject to make the offer
+     * returned by getLastOffer
+     */
+    Actions chooseAction() {
+        BidDetails bid;
+        if (negotiationSession.getOwnBidHistory().getHistory().isEmpty()) {
+            bid = offeringStrategy.determineOpeningBid();
+        } else {
+            bid = offeringStrategy.determineNextBid();
+        }
+        boolean opponentOffered = !negotiationSession.getOpponentBidHistory().getHistory().isEmpty();
+        if (bid == null) {
+            return opponentOffered ? Actions.Accept : Actions.Break;
+        }
+        offeringStrategy.setNextBid(bid);
+
+        if (opponentOffered) {
+            Actions decision = acceptanceStrategy.determineAcceptability();
+            if (decision != Actions.Reject) {
+                return decision;
+            }
+        }
+        negotiationSession.getOwnBidHistory().add(bid);
+        lastOffer = bid.getBid();
+        return Actions.Reject;
+    }
+
+    /**
+     * @return last bid offered by this party
+     */
+    Bid getLastOffer() {
+        return lastOffer;
+    }
+}
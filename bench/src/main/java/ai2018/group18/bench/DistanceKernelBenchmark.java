@@ -0,0 +1,131 @@
+package ai2018.group18.bench;
+
+import ai2018.group18.DistanceKernel;
+import ai2018.group18.ScalarDistanceKernel;
+import ai2018.group18.VectorDistanceKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rating a band of candidates against the three reference bids: the per-bid euclidean distance loop that
+ * Group18_OMS used before the distance tables (Math.pow) against the column kernels over the structure-of-arrays
+ * layout.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class DistanceKernelBenchmark {
+    private static final double[] GAMMA = {1.0, 0.8, 0.3};
+
+    @Param({"5", "10", "20"})
+    public int issues;
+
+    @Param({"1000", "10000", "100000"})
+    public int candidates;
+
+    private double[] omega;
+    private double[][] bidValues; // bidValues[candidate][issue], the layout of the per-bid loop
+    private double[][] columns; // columns[issue][candidate]
+    private double[][] references; // references[reference][issue]
+    private double[] sums;
+    private double[] ratings;
+    private DistanceKernel scalarKernel;
+    private DistanceKernel vectorKernel;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(18);
+        omega = new double[issues];
+        for (int j = 0; j < issues; j++) {
+            omega[j] = random.nextDouble();
+        }
+
+        bidValues = new double[candidates][issues];
+        columns = new double[issues][candidates];
+        for (int c = 0; c < candidates; c++) {
+            for (int j = 0; j < issues; j++) {
+                double value = random.nextInt(10);
+                bidValues[c][j] = value;
+                columns[j][c] = value;
+            }
+        }
+
+        references = new double[GAMMA.length][issues];
+        for (double[] reference : references) {
+            for (int j = 0; j < issues; j++) {
+                reference[j] = random.nextInt(10);
+            }
+        }
+
+        sums = new double[candidates];
+        ratings = new double[candidates];
+        scalarKernel = new ScalarDistanceKernel();
+        vectorKernel = new VectorDistanceKernel();
+    }
+
+    @Benchmark
+    public double[] perBidEuclideanDistance() {
+        for (int c = 0; c < candidates; c++) {
+            double rating = 0;
+            for (int i = 0; i < GAMMA.length; i++) {
+                rating += GAMMA[i] * euclideanDistance(omega, bidValues[c], references[i]);
+            }
+            ratings[c] = -1 * rating;
+        }
+        return ratings;
+    }
+
+    /**
+     * The per-bid distance of Group18_OMS before the distance tables
+     * @param omega issues weights
+     * @param a issues values
+     * @param b reference issues values
+     * @return euclidean distance of omega * (a - b)
+     */
+    private static double euclideanDistance(double[] omega, double[] a, double[] b) {
+        double diff_square_sum = 0.0;
+        for (int i = 0; i < omega.length; i++) {
+            diff_square_sum += Math.pow(omega[i] * (a[i] - b[i]), 2);
+        }
+
+        return Math.sqrt(diff_square_sum);
+    }
+
+    @Benchmark
+    public double[] scalarKernel() {
+        return rateColumns(scalarKernel);
+    }
+
+    @Benchmark
+    public double[] vectorKernel() {
+        return rateColumns(vectorKernel);
+    }
+
+    private double[] rateColumns(DistanceKernel kernel) {
+        Arrays.fill(ratings, 0.0);
+        for (int i = 0; i < GAMMA.length; i++) {
+            Arrays.fill(sums, 0.0);
+            for (int j = 0; j < issues; j++) {
+                kernel.addSquaredDifferences(columns[j], references[i][j], omega[j], sums, candidates);
+            }
+            kernel.subtractDistances(sums, GAMMA[i], ratings, candidates);
+        }
+        return ratings;
+    }
+}
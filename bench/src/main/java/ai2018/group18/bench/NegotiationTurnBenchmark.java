@@ -0,0 +1,86 @@
+package ai2018.group18.bench;
+
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.AcceptanceStrategy;
+import genius.core.boaframework.Actions;
+import genius.core.boaframework.OMStrategy;
+import genius.core.boaframework.OfferingStrategy;
+import genius.core.boaframework.OpponentModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One turn of the Group18 agent halfway through the negotiation: Group18_BS determines the next bid through
+ * Group18_OM and Group18_OMS, and Group18_AS decides on the last bid of the opponent. The band of Group18_BS
+ * follows from its lower bound, so it has no band size parameter.
+ * <p>
+ * Group18_BS updates the opponent model on every call. Every iteration starts again from a new session with the
+ * same seed, on which the opponent model was trained one opponent bid at a time like during the negotiation.
+ * Within an iteration the weights of the model keep changing, but the amount of work per call does not.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class NegotiationTurnBenchmark {
+    private static final int OPPONENT_BIDS = 20;
+
+    @Param({"4", "8", "16"})
+    public int issues;
+
+    @Param({"4", "8"})
+    public int values;
+
+    private BenchmarkSession session;
+    private OpponentModel opponentModel;
+    private OfferingStrategy offeringStrategy;
+    private AcceptanceStrategy acceptanceStrategy;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        session = new BenchmarkSession(issues, values, 18);
+        opponentModel = BenchmarkSession.newOpponentModel("ai2018.group18.Group18_OM");
+        opponentModel.init(session.negotiationSession, new HashMap<>());
+        OMStrategy omStrategy = BenchmarkSession.newOMStrategy("ai2018.group18.Group18_OMS");
+        omStrategy.init(session.negotiationSession, opponentModel, new HashMap<>());
+        offeringStrategy = BenchmarkSession.newOfferingStrategy("ai2018.group18.Group18_BS");
+        offeringStrategy.init(session.negotiationSession, opponentModel, omStrategy, new HashMap<>());
+        acceptanceStrategy = BenchmarkSession.newAcceptanceStrategy("ai2018.group18.Group18_AS");
+        acceptanceStrategy.init(session.negotiationSession, offeringStrategy, opponentModel, new HashMap<>());
+
+        // our opening bid and a few bids of the opponent, halfway through the negotiation
+        BidDetails openingBid = offeringStrategy.determineOpeningBid();
+        offeringStrategy.setNextBid(openingBid);
+        session.negotiationSession.getOwnBidHistory().add(openingBid);
+        for (BidDetails bidDetails : session.opponentBids(OPPONENT_BIDS)) {
+            session.receiveOpponentBid(bidDetails);
+            opponentModel.updateModel(bidDetails.getBid());
+        }
+        session.moveToRound(BenchmarkSession.ROUNDS / 2);
+    }
+
+    @Benchmark
+    public BidDetails determineNextBid() {
+        return offeringStrategy.determineNextBid();
+    }
+
+    @Benchmark
+    public Actions determineAcceptability() {
+        return acceptanceStrategy.determineAcceptability();
+    }
+}
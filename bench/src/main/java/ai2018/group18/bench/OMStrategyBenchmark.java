@@ -0,0 +1,72 @@
+package ai2018.group18.bench;
+
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.OMStrategy;
+import genius.core.boaframework.OpponentModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choosing a bid from a band of candidates with every opponent model strategy, after the opponent offered a few
+ * bids to Group18_OM. The same band is offered every call, like consecutive turns with the same lower bound.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class OMStrategyBenchmark {
+    private static final int OPPONENT_BIDS = 20;
+
+    @Param({"ai2018.group18.Group18_OMS", "Phoenix_OMS", "BestBid"})
+    public String strategy;
+
+    @Param({"4", "8", "16"})
+    public int issues;
+
+    @Param({"4", "8"})
+    public int values;
+
+    @Param({"100", "1000", "10000"})
+    public int band;
+
+    private OMStrategy omStrategy;
+    private List<BidDetails> candidates;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkSession session = new BenchmarkSession(issues, values, 18);
+        OpponentModel opponentModel = BenchmarkSession.newOpponentModel("ai2018.group18.Group18_OM");
+        opponentModel.init(session.negotiationSession, new HashMap<>());
+        for (BidDetails bidDetails : session.opponentBids(OPPONENT_BIDS)) {
+            session.receiveOpponentBid(bidDetails);
+            opponentModel.updateModel(bidDetails.getBid(), session.negotiationSession.getTime());
+        }
+
+        Map<String, Double> parameters = new HashMap<>();
+        parameters.put("t", 1.1);
+        omStrategy = BenchmarkSession.newOMStrategy(strategy);
+        omStrategy.init(session.negotiationSession, opponentModel, parameters);
+        candidates = session.randomBids(band);
+    }
+
+    @Benchmark
+    public BidDetails getBid() {
+        return omStrategy.getBid(candidates);
+    }
+}
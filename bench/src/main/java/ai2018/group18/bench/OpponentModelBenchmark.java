@@ -0,0 +1,66 @@
+package ai2018.group18.bench;
+
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.OpponentModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One updateModel call of every opponent model: the opponent offers the next bid of a fixed list, which is added
+ * to the bid history first, as Genius does. The history grows during an iteration and is reset after it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class OpponentModelBenchmark {
+    private static final int OPPONENT_BIDS = 1000;
+
+    @Param({"ai2018.group18.Group18_OM", "Phoenix_OM", "HardHeadedFrequencyModel"})
+    public String model;
+
+    @Param({"4", "8", "16"})
+    public int issues;
+
+    @Param({"4", "8"})
+    public int values;
+
+    private BenchmarkSession session;
+    private OpponentModel opponentModel;
+    private List<BidDetails> opponentBids;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        session = new BenchmarkSession(issues, values, 18);
+        opponentBids = session.opponentBids(OPPONENT_BIDS);
+        opponentModel = BenchmarkSession.newOpponentModel(model);
+        opponentModel.init(session.negotiationSession, new HashMap<>());
+        next = 0;
+    }
+
+    @Benchmark
+    public OpponentModel updateModel() {
+        BidDetails bidDetails = opponentBids.get(next);
+        next = (next + 1) % OPPONENT_BIDS;
+        session.receiveOpponentBid(bidDetails);
+        opponentModel.updateModel(bidDetails.getBid(), session.negotiationSession.getTime());
+        return opponentModel;
+    }
+}
@@ -0,0 +1,187 @@
+package ai2018.group18.bench;
+
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.AcceptanceStrategy;
+import genius.core.boaframework.OMStrategy;
+import genius.core.boaframework.OfferingStrategy;
+import genius.core.boaframework.OpponentModel;
+import genius.core.boaframework.SortedOutcomeSpace;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Macro suite that runs the Group18 agent (Group18_BS, Group18_OMS and Group18_AS with Group18_OM) on generated
+ * domains of growing size, and prints init time, peak heap and per-turn latency as CSV. Genius' SortedOutcomeSpace,
+ * which enumerates and sorts every outcome, is constructed on the same domains up to a size limit.
+ * <p>
+ * Options, all optional: --values=10 --min-outcomes=1e3 --max-outcomes=1e8 --skew=1 --ranking=0 --turns=200
+ * --turn-budget-ms=10000 --sorted-limit=1e6 --xml-dir=path. A ranking length above 0 runs the agent with
+ * uncertainty, the xml directory receives the generated domains and profiles.
+ */
+public final class ScalingSuite {
+    private static final long SEED = 18;
+
+    private ScalingSuite() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int values = (int) option(options, "values", 10);
+        double minOutcomes = option(options, "min-outcomes", 1e3);
+        double maxOutcomes = option(options, "max-outcomes", 1e8);
+        double skew = option(options, "skew", 1);
+        int rankingLength = (int) option(options, "ranking", 0);
+        int turns = (int) option(options, "turns", 200);
+        double turnBudget = option(options, "turn-budget-ms", 10000);
+        double sortedLimit = option(options, "sorted-limit", 1e6);
+        Path xmlDirectory = options.containsKey("xml-dir") ? Paths.get(options.get("xml-dir")) : null;
+
+        System.out.println("outcomes,issues,values,init_ms,peak_heap_mb,turns,turn_median_us,turn_p99_us,turn_max_us,"
+                + "sorted_init_ms,sorted_peak_heap_mb");
+        for (int issues = 1; Math.pow(values, issues) <= maxOutcomes; issues++) {
+            SyntheticDomainGenerator generator = new SyntheticDomainGenerator(issues, values, skew, SEED);
+            double outcomes = generator.getNumberOfOutcomes();
+            if (outcomes < minOutcomes) {
+                continue;
+            }
+
+            String row = String.format("%.0f,%d,%d,", outcomes, issues, values);
+            row += runAgent(generator, rankingLength, turns, turnBudget, xmlDirectory) + ",";
+            if (outcomes <= sortedLimit) {
+                row += runSortedOutcomeSpace(generator);
+            } else {
+                row += "skipped,skipped";
+            }
+            System.out.println(row);
+        }
+    }
+
+    /**
+     * Initialize the agent and negotiate against a list of opponent bids until the deadline or the turn budget
+     * @return init_ms,peak_heap_mb,turns,turn_median_us,turn_p99_us,turn_max_us
+     */
+    private static String runAgent(SyntheticDomainGenerator generator, int rankingLength, int turns,
+                                   double turnBudget, Path xmlDirectory) throws Exception {
+        BenchmarkSession session = new BenchmarkSession(generator, rankingLength, turns, SEED);
+        if (xmlDirectory != null) {
+            Files.createDirectories(xmlDirectory);
+            String name = session.domain.getIssues().size() + "x" + (long) generator.getNumberOfOutcomes();
+            generator.writeDomain(session.domain, xmlDirectory.resolve("domain-" + name + ".xml"));
+            generator.writeProfile(session.utilitySpace, xmlDirectory.resolve("profile-" + name + ".xml"));
+        }
+        List<BidDetails> opponentBids = session.opponentBids(turns);
+
+        try {
+            resetPeakHeap();
+            long start = System.nanoTime();
+            OpponentModel opponentModel = BenchmarkSession.newOpponentModel("ai2018.group18.Group18_OM");
+            opponentModel.init(session.negotiationSession, new HashMap<>());
+            OMStrategy omStrategy = BenchmarkSession.newOMStrategy("ai2018.group18.Group18_OMS");
+            omStrategy.init(session.negotiationSession, opponentModel, new HashMap<>());
+            OfferingStrategy offeringStrategy = BenchmarkSession.newOfferingStrategy("ai2018.group18.Group18_BS");
+            offeringStrategy.init(session.negotiationSession, opponentModel, omStrategy, new HashMap<>());
+            AcceptanceStrategy acceptanceStrategy =
+                    BenchmarkSession.newAcceptanceStrategy("ai2018.group18.Group18_AS");
+            acceptanceStrategy.init(session.negotiationSession, offeringStrategy, opponentModel, new HashMap<>());
+            BidDetails openingBid = offeringStrategy.determineOpeningBid();
+            long initNanos = System.nanoTime() - start;
+
+            // every turn the opponent offers, the agent updates its model, bids and decides on the offer
+            offeringStrategy.setNextBid(openingBid);
+            session.negotiationSession.getOwnBidHistory().add(openingBid);
+            long[] turnNanos = new long[turns];
+            int turn = 0;
+            while (turn < turns) {
+                long turnStart = System.nanoTime();
+                BidDetails opponentBid = opponentBids.get(turn);
+                session.receiveOpponentBid(opponentBid);
+                opponentModel.updateModel(opponentBid.getBid(), session.negotiationSession.getTime());
+                BidDetails nextBid = offeringStrategy.determineNextBid();
+                offeringStrategy.setNextBid(nextBid);
+                acceptanceStrategy.determineAcceptability();
+                session.negotiationSession.getOwnBidHistory().add(nextBid);
+                turnNanos[turn++] = System.nanoTime() - turnStart;
+                session.timeline.increment();
+
+                if (turnNanos[turn - 1] > turnBudget * 1e6) {
+                    break;
+                }
+            }
+
+            long[] sorted = Arrays.copyOf(turnNanos, turn);
+            Arrays.sort(sorted);
+            return String.format("%.1f,%.1f,%d,%.1f,%.1f,%.1f", initNanos / 1e6, peakHeapMegabytes(), turn,
+                    sorted[turn / 2] / 1e3, sorted[Math.min(turn - 1, (int) (turn * 0.99))] / 1e3,
+                    sorted[turn - 1] / 1e3);
+        } catch (OutOfMemoryError e) {
+            return "OOM,OOM,OOM,OOM,OOM,OOM";
+        }
+    }
+
+    /**
+     * @return sorted_init_ms,sorted_peak_heap_mb
+     */
+    private static String runSortedOutcomeSpace(SyntheticDomainGenerator generator) {
+        BenchmarkSession session = new BenchmarkSession(generator, 0, 1, SEED);
+        try {
+            resetPeakHeap();
+            long start = System.nanoTime();
+            new SortedOutcomeSpace(session.utilitySpace);
+            long initNanos = System.nanoTime() - start;
+            return String.format("%.1f,%.1f", initNanos / 1e6, peakHeapMegabytes());
+        } catch (OutOfMemoryError e) {
+            return "OOM,OOM";
+        }
+    }
+
+    private static void resetPeakHeap() {
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * @return sum of the peak usage of the heap pools since the last reset, an upper bound on the peak heap
+     */
+    private static double peakHeapMegabytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak / (1024.0 * 1024.0);
+    }
+
+    /**
+     * @param args options of the form --name=value
+     * @return value of every option by name
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    static double option(Map<String, String> options, String name, double defaultValue) {
+        return options.containsKey(name) ? Double.parseDouble(options.get(name)) : defaultValue;
+    }
+}
@@ -0,0 +1,179 @@
+package ai2018.group18.bench;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.DomainImpl;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Objective;
+import genius.core.issue.ValueDiscrete;
+import genius.core.uncertainty.BidRanking;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.Evaluator;
+import genius.core.utility.EvaluatorDiscrete;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates additive discrete domains, preference profiles and bid rankings, in memory or as Genius XML files.
+ * Issue weights follow a power law: the weight of the i-th most important issue is proportional to i^-skew,
+ * so a skew of 0 gives equal weights. Value evaluations are random integers from 1 to 10.
+ */
+public class SyntheticDomainGenerator {
+    private static final int MAX_EVALUATION = 10;
+    private static final String OBJECTIVE_TAG =
+            "<objective index=\"0\" etype=\"objective\" type=\"objective\" description=\"\" name=\"root\">";
+    private final int issues;
+    private final int values;
+    private final double weightSkew;
+    private final Random random;
+
+    /**
+     * @param issues amount of issues
+     * @param values amount of values of every issue
+     * @param weightSkew exponent of the power law of the issue weights, 0 for equal weights
+     * @param seed seed of the profiles and rankings
+     */
+    public SyntheticDomainGenerator(int issues, int values, double weightSkew, long seed) {
+        this.issues = issues;
+        this.values = values;
+        this.weightSkew = weightSkew;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * @return amount of outcomes of the generated domains
+     */
+    public double getNumberOfOutcomes() {
+        return Math.pow(values, issues);
+    }
+
+    /**
+     * @return domain with issues i1..in, each with values v1..vm
+     */
+    public Domain createDomain() {
+        Objective root = new Objective(null, "root", 0);
+        for (int j = 1; j <= issues; j++) {
+            String[] valueNames = new String[values];
+            for (int k = 0; k < values; k++) {
+                valueNames[k] = "v" + (k + 1);
+            }
+            root.addChild(new IssueDiscrete("i" + j, j, valueNames, root));
+        }
+
+        DomainImpl domain = new DomainImpl();
+        domain.setObjectivesRoot(root);
+        return domain;
+    }
+
+    /**
+     * @param domain domain created by this generator
+     * @return profile with power law issue weights, in a random order over the issues, and random evaluations
+     */
+    public AdditiveUtilitySpace createProfile(Domain domain) {
+        List<Double> weights = new ArrayList<>();
+        double sum = 0.0;
+        for (int j = 0; j < issues; j++) {
+            double weight = Math.pow(j + 1, -weightSkew);
+            weights.add(weight);
+            sum += weight;
+        }
+        Collections.shuffle(weights, random);
+
+        Map<Objective, Evaluator> evaluators = new HashMap<>();
+        for (int j = 0; j < issues; j++) {
+            IssueDiscrete issue = (IssueDiscrete) domain.getIssues().get(j);
+            EvaluatorDiscrete evaluator = new EvaluatorDiscrete();
+            evaluator.setWeight(weights.get(j) / sum);
+            for (ValueDiscrete value : issue.getValues()) {
+                evaluator.setEvaluationDouble(value, 1 + random.nextInt(MAX_EVALUATION));
+            }
+            evaluators.put(issue, evaluator);
+        }
+        return new AdditiveUtilitySpace(domain, evaluators);
+    }
+
+    /**
+     * @param profile profile that ranks the bids
+     * @param length amount of ranked bids
+     * @return ranking of random bids from worst to best, with the utility of the worst and best bid as bounds
+     */
+    public BidRanking createRanking(AdditiveUtilitySpace profile, int length) {
+        List<Bid> bids = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            bids.add(profile.getDomain().getRandomBid(random));
+        }
+        bids.sort(Comparator.comparingDouble(profile::getUtility));
+        return new BidRanking(bids, profile.getUtility(bids.get(0)), profile.getUtility(bids.get(length - 1)));
+    }
+
+    /**
+     * Write the domain in the XML format of Genius domain files
+     * @param domain domain created by this generator
+     * @param file
+     * @throws IOException
+     */
+    public void writeDomain(Domain domain, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("<negotiation_template>");
+            out.println("<utility_space number_of_issues=\"" + issues + "\">");
+            out.println(OBJECTIVE_TAG);
+            for (Issue issue : domain.getIssues()) {
+                out.println(issueTag(issue));
+                List<ValueDiscrete> valuesOfIssue = ((IssueDiscrete) issue).getValues();
+                for (int k = 0; k < valuesOfIssue.size(); k++) {
+                    out.println("<item index=\"" + (k + 1) + "\" value=\"" + valuesOfIssue.get(k).getValue()
+                            + "\" cost=\"0.0\" description=\"\"/>");
+                }
+                out.println("</issue>");
+            }
+            out.println("</objective>");
+            out.println("</utility_space>");
+            out.println("</negotiation_template>");
+        }
+    }
+
+    /**
+     * Write the profile in the XML format of Genius preference profiles, without discount and reservation value
+     * @param profile profile created by this generator
+     * @param file
+     * @throws IOException
+     */
+    public void writeProfile(AdditiveUtilitySpace profile, Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("<utility_space>");
+            out.println(OBJECTIVE_TAG);
+            for (Issue issue : profile.getDomain().getIssues()) {
+                EvaluatorDiscrete evaluator = (EvaluatorDiscrete) profile.getEvaluator(issue.getNumber());
+                out.println(issueTag(issue));
+                List<ValueDiscrete> valuesOfIssue = ((IssueDiscrete) issue).getValues();
+                for (int k = 0; k < valuesOfIssue.size(); k++) {
+                    out.println("<item index=\"" + (k + 1) + "\" value=\"" + valuesOfIssue.get(k).getValue()
+                            + "\" evaluation=\"" + evaluator.getValue(valuesOfIssue.get(k)) + "\"/>");
+                }
+                out.println("</issue>");
+                out.println("<weight index=\"" + issue.getNumber() + "\" value=\"" + evaluator.getWeight() + "\"/>");
+            }
+            out.println("</objective>");
+            out.println("<discount_factor value=\"1.0\"/>");
+            out.println("<reservation value=\"0.0\"/>");
+            out.println("</utility_space>");
+        }
+    }
+
+    private static String issueTag(Issue issue) {
+        return "<issue index=\"" + issue.getNumber() + "\" etype=\"discrete\" type=\"discrete\" vtype=\"discrete\""
+                + " name=\"" + issue.getName() + "\">";
+    }
+}
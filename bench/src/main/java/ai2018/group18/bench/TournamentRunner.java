@@ -0,0 +1,289 @@
+package ai2018.group18.bench;
+
+import genius.core.Domain;
+import genius.core.utility.AdditiveUtilitySpace;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Headless round-robin tournament: every agent negotiates against every other agent, once as opening agent and
+ * once as responding agent, on every generated domain. Sessions are independent, so they run concurrently.
+ * <p>
+ * The scheduler decides how: pool runs each session on a single thread of a pool of platform threads, platform
+ * and virtual run each agent on its own thread, platform or virtual, and hand the turn over with every offer.
+ * Virtual threads need Java 21; on older runtimes the virtual scheduler falls back to platform threads. Every
+ * scheduler reports sessions per second and the core utilisation, the process CPU time over the wall time of all
+ * cores; all runs the three schedulers one after another on the same sessions.
+ * <p>
+ * Options, all optional: --scheduler=pool|platform|virtual|all --threads=cores --max-sessions=256 --domains=4
+ * --issues=5 --values=5 --skew=1 --rounds=1000 --output=sessions.csv --agent=Name=BS,AS,OM,OMS
+ * --param=Name.key=value. --threads sizes the pool, --max-sessions bounds the sessions that run at once with agent
+ * threads. --agent and --param can be repeated; an --agent with the name of a built-in agent replaces it.
+ */
+public final class TournamentRunner {
+    private static final long SEED = 18;
+
+    private TournamentRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, AgentConfiguration> agents = defaultAgents();
+        List<String> options = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--agent=")) {
+                String agent = arg.substring("--agent=".length());
+                int separator = agent.indexOf('=');
+                String name = agent.substring(0, separator);
+                agents.put(name, AgentConfiguration.parse(name, agent.substring(separator + 1)));
+            } else if (arg.startsWith("--param=")) {
+                String parameter = arg.substring("--param=".length());
+                int dot = parameter.indexOf('.');
+                int separator = parameter.indexOf('=');
+                AgentConfiguration agent = agents.get(parameter.substring(0, dot));
+                if (agent == null) {
+                    throw new IllegalArgumentException("Unknown agent in " + arg);
+                }
+                agent.withParameter(parameter.substring(dot + 1, separator),
+                        Double.parseDouble(parameter.substring(separator + 1)));
+            } else {
+                options.add(arg);
+            }
+        }
+        Map<String, String> parsedOptions = ScalingSuite.parseOptions(options.toArray(new String[0]));
+        int threads = (int) ScalingSuite.option(parsedOptions, "threads", Runtime.getRuntime().availableProcessors());
+        int domains = (int) ScalingSuite.option(parsedOptions, "domains", 4);
+        int issues = (int) ScalingSuite.option(parsedOptions, "issues", 5);
+        int values = (int) ScalingSuite.option(parsedOptions, "values", 5);
+        double skew = ScalingSuite.option(parsedOptions, "skew", 1);
+        int rounds = (int) ScalingSuite.option(parsedOptions, "rounds", 1000);
+
+        int maxSessions = (int) ScalingSuite.option(parsedOptions, "max-sessions", 256);
+        String scheduler = parsedOptions.getOrDefault("scheduler", "pool");
+        List<String> schedulers = scheduler.equals("all") ? Arrays.asList("pool", "platform", "virtual")
+                : Collections.singletonList(scheduler);
+
+        List<String> report = new ArrayList<>();
+        List<AlternatingOffersSession.Result> results = null;
+        for (String mode : schedulers) {
+            List<AlternatingOffersSession> sessions = createSessions(new ArrayList<>(agents.values()), domains,
+                    issues, values, skew, rounds);
+            long cpuStart = processCpuNanos();
+            long start = System.nanoTime();
+            switch (mode) {
+                case "pool":
+                    results = runOnPool(sessions, threads);
+                    break;
+                case "platform":
+                    results = runWithAgentThreads(sessions, platformThreadFactory(), maxSessions);
+                    break;
+                case "virtual":
+                    results = runWithAgentThreads(sessions, virtualThreadFactory(), maxSessions);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown scheduler " + mode);
+            }
+            long wallNanos = System.nanoTime() - start;
+            long cpuNanos = processCpuNanos() - cpuStart;
+
+            System.out.println("# scheduler " + mode);
+            printSummary(new ArrayList<>(agents.keySet()), results);
+            double seconds = wallNanos / 1e9;
+            String utilisation = cpuStart < 0 ? "n/a" : String.format("%.3f",
+                    cpuNanos / ((double) wallNanos * Runtime.getRuntime().availableProcessors()));
+            report.add(String.format("%s,%d,%.1f,%.1f,%s", mode, results.size(), seconds, results.size() / seconds,
+                    utilisation));
+        }
+
+        System.out.println("scheduler,sessions,seconds,sessions_per_s,core_utilisation");
+        report.forEach(System.out::println);
+        if (parsedOptions.containsKey("output")) {
+            writeSessions(results, parsedOptions.get("output"));
+        }
+    }
+
+    /**
+     * @return the Group18 agent and the agents it is evaluated against
+     */
+    static Map<String, AgentConfiguration> defaultAgents() {
+        Map<String, AgentConfiguration> agents = new LinkedHashMap<>();
+        agents.put("Group18", new AgentConfiguration("Group18", "ai2018.group18.Group18_BS",
+                "ai2018.group18.Group18_AS", "ai2018.group18.Group18_OM", "ai2018.group18.Group18_OMS")
+                .withParameter("parallelism", 1));
+        agents.put("Phoenix", new AgentConfiguration("Phoenix", "Phoenix_BS", "SquaredAcceptance", "Phoenix_OM",
+                "Phoenix_OMS"));
+        agents.put("SqrtTime", new AgentConfiguration("SqrtTime", "SqrtTimeBids", "AC_Next",
+                "HardHeadedFrequencyModel", "BestBid").withParameter("t", 1.1).withParameter("parallelism", 1));
+        agents.put("Boulware", new AgentConfiguration("Boulware", "TimeDependent_Offering", "AC_Next",
+                "HardHeadedFrequencyModel", "BestBid").withParameter("e", 0.2).withParameter("t", 1.1)
+                .withParameter("parallelism", 1));
+        agents.put("Conceder", new AgentConfiguration("Conceder", "TimeDependent_Offering", "AC_Next",
+                "HardHeadedFrequencyModel", "BestBid").withParameter("e", 2.0).withParameter("t", 1.1)
+                .withParameter("parallelism", 1));
+        return agents;
+    }
+
+    /**
+     * @return a session for every ordered pair of different agents on every domain, with one profile pair per domain
+     */
+    static List<AlternatingOffersSession> createSessions(List<AgentConfiguration> agents, int domains, int issues,
+                                                         int values, double skew, int rounds) {
+        List<AlternatingOffersSession> sessions = new ArrayList<>();
+        for (int d = 0; d < domains; d++) {
+            SyntheticDomainGenerator generator = new SyntheticDomainGenerator(issues, values, skew, SEED + d);
+            Domain domain = generator.createDomain();
+            AdditiveUtilitySpace[] profiles = {generator.createProfile(domain), generator.createProfile(domain)};
+            for (AgentConfiguration first : agents) {
+                for (AgentConfiguration second : agents) {
+                    if (first != second) {
+                        // every agent gets a copy of its profile, Group18 writes its estimate into it
+                        sessions.add(new AlternatingOffersSession(first, second,
+                                (AdditiveUtilitySpace) profiles[0].copy(), (AdditiveUtilitySpace) profiles[1].copy(),
+                                rounds));
+                    }
+                }
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * @param sessions
+     * @param threads amount of platform threads
+     * @return results in the order of the sessions
+     */
+    static List<AlternatingOffersSession.Result> runOnPool(List<AlternatingOffersSession> sessions, int threads)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<AlternatingOffersSession.Result>> futures = new ArrayList<>();
+            for (AlternatingOffersSession session : sessions) {
+                futures.add(executor.submit(session::run));
+            }
+            List<AlternatingOffersSession.Result> results = new ArrayList<>();
+            for (Future<AlternatingOffersSession.Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Run every session with each agent on its own thread, at most maxSessions sessions at a time so the memory of
+     * the agents stays bounded
+     * @param sessions
+     * @param threadFactory factory of the agent threads
+     * @param maxSessions amount of sessions that run at once
+     * @return results in the order of the sessions
+     */
+    static List<AlternatingOffersSession.Result> runWithAgentThreads(List<AlternatingOffersSession> sessions,
+                                                                     ThreadFactory threadFactory, int maxSessions)
+            throws Exception {
+        Semaphore running = new Semaphore(maxSessions);
+        List<CompletableFuture<AlternatingOffersSession.Result>> futures = new ArrayList<>();
+        for (AlternatingOffersSession session : sessions) {
+            running.acquire();
+            futures.add(session.start(threadFactory).whenComplete((result, e) -> running.release()));
+        }
+        List<AlternatingOffersSession.Result> results = new ArrayList<>();
+        for (CompletableFuture<AlternatingOffersSession.Result> future : futures) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    /**
+     * @return factory of daemon platform threads
+     */
+    static ThreadFactory platformThreadFactory() {
+        return runnable -> {
+            Thread thread = new Thread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The bench compiles for Java 17, so Thread.ofVirtual() is looked up by reflection
+     * @return factory of virtual threads, or of platform threads if the runtime has no virtual threads
+     */
+    static ThreadFactory virtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            System.out.println("# no virtual threads on Java " + System.getProperty("java.version")
+                    + ", the virtual scheduler uses platform threads");
+            return platformThreadFactory();
+        }
+    }
+
+    /**
+     * @return CPU time of all threads of this process, or -1 if the JVM does not report it
+     */
+    private static long processCpuNanos() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    /**
+     * Print the agreement rate, mean utility and mean rounds of every agent over all its sessions
+     */
+    static void printSummary(List<String> agentNames, List<AlternatingOffersSession.Result> results) {
+        System.out.println("agent,sessions,agreements,mean_utility,mean_rounds,errors");
+        for (String name : agentNames) {
+            int sessions = 0;
+            int agreements = 0;
+            int errors = 0;
+            double utility = 0;
+            long rounds = 0;
+            for (AlternatingOffersSession.Result result : results) {
+                boolean first = result.firstAgent.equals(name);
+                if (!first && !result.secondAgent.equals(name)) {
+                    continue;
+                }
+                sessions++;
+                agreements += result.agreement ? 1 : 0;
+                errors += result.error != null ? 1 : 0;
+                utility += first ? result.firstUtility : result.secondUtility;
+                rounds += result.rounds;
+            }
+            System.out.printf("%s,%d,%.3f,%.4f,%.1f,%d%n", name, sessions, (double) agreements / sessions,
+                    utility / sessions, (double) rounds / sessions, errors);
+        }
+    }
+
+    private static void writeSessions(List<AlternatingOffersSession.Result> results, String file)
+            throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8))) {
+            out.println("first,second,agreement,rounds,first_utility,second_utility,millis,error");
+            for (AlternatingOffersSession.Result result : results) {
+                out.printf("%s,%s,%b,%d,%.4f,%.4f,%.1f,%s%n", result.firstAgent, result.secondAgent,
+                        result.agreement, result.rounds, result.firstUtility, result.secondUtility,
+                        result.nanos / 1e6, result.error == null ? "" : result.error.replace(',', ';'));
+            }
+        }
+    }
+}
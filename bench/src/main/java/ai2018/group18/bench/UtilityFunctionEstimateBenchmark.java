@@ -0,0 +1,61 @@
+package ai2018.group18.bench;
+
+import ai2018.group18.UtilityFunctionEstimate;
+import genius.core.Bid;
+import genius.core.bidding.BidDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Estimating the utility function from a ranking of random bids, ranked by the own profile from worst to best.
+ * The estimate writes its weights to the utility space, which is reused between calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class UtilityFunctionEstimateBenchmark {
+    @Param({"4", "8", "16"})
+    public int issues;
+
+    @Param({"4", "8"})
+    public int values;
+
+    @Param({"100", "1000", "10000"})
+    public int rankedBids;
+
+    private BenchmarkSession session;
+    private List<Bid> ranking;
+
+    @Setup
+    public void setup() {
+        session = new BenchmarkSession(issues, values, 18);
+        List<BidDetails> bids = session.randomBids(rankedBids);
+        bids.sort(Comparator.comparingDouble(BidDetails::getMyUndiscountedUtil));
+        ranking = new ArrayList<>(bids.size());
+        for (BidDetails bidDetails : bids) {
+            ranking.add(bidDetails.getBid());
+        }
+    }
+
+    @Benchmark
+    public UtilityFunctionEstimate estimate() {
+        return new UtilityFunctionEstimate(session.utilitySpace, ranking);
+    }
+}
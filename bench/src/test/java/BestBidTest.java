@@ -0,0 +1,95 @@
+import ai2018.group18.Group18_OM;
+import ai2018.group18.LazyOutcomeSpace;
+import ai2018.group18.bench.SyntheticDomainGenerator;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.NegotiationSession;
+import genius.core.boaframework.OpponentModel;
+import genius.core.boaframework.SessionData;
+import genius.core.misc.Range;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.utility.AdditiveUtilitySpace;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The score index of LazyOutcomeSpace gives BestBid the same bid as evaluating every bid of the range
+ */
+class BestBidTest {
+    private static final int OPPONENT_BIDS = 30;
+    private static final int RANGES = 200;
+
+    @Test
+    void indexFindsTheBestBidOfHardHeadedFrequencyModel() {
+        assertIndexFindsTheBestBid(new HardHeadedFrequencyModel(), 1);
+    }
+
+    @Test
+    void indexFindsTheBestBidOfGroup18_OM() {
+        assertIndexFindsTheBestBid(new Group18_OM(), 2);
+    }
+
+    /**
+     * @param opponentModel compiled opponent model, trained on bids of a random opponent
+     * @param seed
+     */
+    private static void assertIndexFindsTheBestBid(OpponentModel opponentModel, long seed) {
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(5, 5, 1.0, seed);
+        Domain domain = generator.createDomain();
+        AdditiveUtilitySpace utilitySpace = generator.createProfile(domain);
+        AdditiveUtilitySpace opponentUtilitySpace = generator.createProfile(domain);
+        NegotiationSession negotiationSession = new NegotiationSession(new SessionData(), utilitySpace,
+                new DiscreteTimeline(100));
+        LazyOutcomeSpace outcomeSpace = new LazyOutcomeSpace(utilitySpace);
+        negotiationSession.setOutcomeSpace(outcomeSpace);
+
+        opponentModel.init(negotiationSession, new HashMap<>());
+        Random random = new Random(seed);
+        for (int i = 0; i < OPPONENT_BIDS; i++) {
+            Bid bid = opponentBid(domain, opponentUtilitySpace, random);
+            negotiationSession.getOpponentBidHistory().add(new BidDetails(bid, utilitySpace.getUtility(bid)));
+            opponentModel.updateModel(bid);
+        }
+        BestBid bestBid = new BestBid();
+        bestBid.init(negotiationSession, opponentModel, new HashMap<>());
+
+        for (int i = 0; i < RANGES; i++) {
+            double lower = random.nextDouble();
+            Range range = new Range(lower, lower + 0.01 + 0.2 * random.nextDouble());
+            if (!outcomeSpace.hasBidInRange(range)) {
+                continue;
+            }
+
+            // brute force: evaluate every bid of the range
+            double bestEvaluation = Double.NEGATIVE_INFINITY;
+            for (BidDetails bidDetails : outcomeSpace.getBidsinRange(range)) {
+                bestEvaluation = Math.max(bestEvaluation, opponentModel.getBidEvaluation(bidDetails.getBid()));
+            }
+
+            BidDetails indexed = bestBid.getBid(outcomeSpace, range);
+            assertTrue(indexed.getMyUndiscountedUtil() >= range.getLowerbound()
+                    && indexed.getMyUndiscountedUtil() <= range.getUpperbound());
+            assertEquals(bestEvaluation, opponentModel.getBidEvaluation(indexed.getBid()), 1e-12);
+        }
+    }
+
+    /**
+     * @return the best of a few random bids for the opponent, like an opponent that concedes slowly
+     */
+    private static Bid opponentBid(Domain domain, AdditiveUtilitySpace opponentUtilitySpace, Random random) {
+        Bid best = domain.getRandomBid(random);
+        for (int sample = 0; sample < 10; sample++) {
+            Bid bid = domain.getRandomBid(random);
+            if (opponentUtilitySpace.getUtility(bid) > opponentUtilitySpace.getUtility(best)) {
+                best = bid;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,66 @@
+import ai2018.group18.bench.SyntheticDomainGenerator;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.NegotiationSession;
+import genius.core.boaframework.SessionData;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.Value;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.utility.AdditiveUtilitySpace;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The issue weights of HardHeadedFrequencyModel keep summing to 1, also once an issue reaches the maximum weight,
+ * and the compiled evaluator agrees with the opponent utility space
+ */
+class HardHeadedFrequencyModelTest {
+
+    @Test
+    void weightsStayNormalizedAtTheMaximumWeight() {
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(4, 3, 1.0, 11);
+        Domain domain = generator.createDomain();
+        AdditiveUtilitySpace utilitySpace = generator.createProfile(domain);
+        NegotiationSession negotiationSession = new NegotiationSession(new SessionData(), utilitySpace,
+                new DiscreteTimeline(100));
+        HardHeadedFrequencyModel opponentModel = new HardHeadedFrequencyModel();
+        opponentModel.init(negotiationSession, new HashMap<>());
+
+        // the first issue never changes, the others change every bid, so the first issue reaches the maximum
+        List<Issue> issues = domain.getIssues();
+        Random random = new Random(11);
+        for (int round = 0; round < 60; round++) {
+            HashMap<Integer, Value> values = new HashMap<>();
+            for (int j = 0; j < issues.size(); j++) {
+                IssueDiscrete issue = (IssueDiscrete) issues.get(j);
+                values.put(issue.getNumber(), issue.getValue(j == 0 ? 0 : round % 2));
+            }
+            Bid bid = new Bid(domain, values);
+            negotiationSession.getOpponentBidHistory().add(new BidDetails(bid, utilitySpace.getUtility(bid)));
+            opponentModel.updateModel(bid);
+
+            double[] weights = opponentModel.getIssueWeights();
+            double sum = 0;
+            for (int j = 0; j < weights.length; j++) {
+                sum += weights[j];
+                assertEquals(weights[j], opponentModel.getOpponentUtilitySpace().getWeight(issues.get(j).getNumber()),
+                        0.0);
+            }
+            assertEquals(1.0, sum, 1e-12);
+            for (int i = 0; i < 10; i++) {
+                Bid randomBid = domain.getRandomBid(random);
+                assertEquals(opponentModel.getOpponentUtilitySpace().getUtility(randomBid),
+                        opponentModel.getBidEvaluation(randomBid), 1e-12);
+            }
+        }
+        assertTrue(opponentModel.getIssueWeights()[0] > 0.8, "the first issue did not reach the maximum weight");
+    }
+}
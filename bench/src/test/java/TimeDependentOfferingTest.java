@@ -0,0 +1,115 @@
+import ai2018.group18.bench.SyntheticDomainGenerator;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.NegotiationSession;
+import genius.core.boaframework.SessionData;
+import genius.core.boaframework.SortedOutcomeSpace;
+import genius.core.timeline.DiscreteTimeline;
+import genius.core.utility.AdditiveUtilitySpace;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TimeDependent_Offering widens the window above the target utility in steps of 0.01 while it is empty, like
+ * OMStrategy.getBid(OutcomeSpace, Range), and offers the best bid if no window up to 1.01 holds a bid
+ */
+class TimeDependentOfferingTest {
+    private static final int ROUNDS = 100;
+
+    @Test
+    void bidIsTheBestBidOfTheFirstWindowThatHoldsABid() throws Exception {
+        // few bids, so many windows are empty and have to be widened
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(3, 3, 1.0, 7);
+        Domain domain = generator.createDomain();
+        AdditiveUtilitySpace utilitySpace = generator.createProfile(domain);
+        AdditiveUtilitySpace opponentUtilitySpace = generator.createProfile(domain);
+        DiscreteTimeline timeline = new DiscreteTimeline(ROUNDS);
+        NegotiationSession negotiationSession = new NegotiationSession(new SessionData(), utilitySpace, timeline);
+        List<BidDetails> allOutcomes = new SortedOutcomeSpace(utilitySpace).getAllOutcomes();
+
+        HardHeadedFrequencyModel opponentModel = new HardHeadedFrequencyModel();
+        opponentModel.init(negotiationSession, new HashMap<>());
+        Random random = new Random(7);
+        for (int i = 0; i < 10; i++) {
+            Bid bid = domain.getRandomBid(random);
+            negotiationSession.getOpponentBidHistory().add(new BidDetails(bid, utilitySpace.getUtility(bid)));
+            opponentModel.updateModel(bid);
+        }
+        BestBid bestBid = new BestBid();
+        bestBid.init(negotiationSession, opponentModel, new HashMap<>());
+        TimeDependent_Offering offering = new TimeDependent_Offering();
+        Map<String, Double> parameters = new HashMap<>();
+        parameters.put("e", 0.5);
+        offering.init(negotiationSession, opponentModel, bestBid, parameters);
+
+        int widened = 0;
+        for (int round = 1; round < ROUNDS; round++, timeline.increment()) {
+            double utilityGoal = offering.p(negotiationSession.getTime());
+
+            // brute force: widen the window over all outcomes until it holds a bid
+            double upperBound = utilityGoal + 0.01;
+            while (count(allOutcomes, utilityGoal, upperBound) == 0) {
+                upperBound += 0.01;
+                widened++;
+            }
+            double bestEvaluation = Double.NEGATIVE_INFINITY;
+            for (BidDetails bidDetails : allOutcomes) {
+                if (inWindow(bidDetails, utilityGoal, upperBound)) {
+                    bestEvaluation = Math.max(bestEvaluation, opponentModel.getBidEvaluation(bidDetails.getBid()));
+                }
+            }
+
+            BidDetails nextBid = offering.determineNextBid();
+            assertTrue(inWindow(nextBid, utilityGoal, upperBound));
+            assertEquals(bestEvaluation, opponentModel.getBidEvaluation(nextBid.getBid()), 1e-12);
+        }
+        assertTrue(widened > 0, "no window had to be widened");
+    }
+
+    @Test
+    void bestBidIsOfferedWhenNoWindowHoldsABid() throws Exception {
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(3, 3, 1.0, 8);
+        Domain domain = generator.createDomain();
+        AdditiveUtilitySpace utilitySpace = generator.createProfile(domain);
+        NegotiationSession negotiationSession = new NegotiationSession(new SessionData(), utilitySpace,
+                new DiscreteTimeline(ROUNDS));
+        HardHeadedFrequencyModel opponentModel = new HardHeadedFrequencyModel();
+        opponentModel.init(negotiationSession, new HashMap<>());
+        BestBid bestBid = new BestBid();
+        bestBid.init(negotiationSession, opponentModel, new HashMap<>());
+
+        // a target utility above every window
+        TimeDependent_Offering offering = new TimeDependent_Offering();
+        Map<String, Double> parameters = new HashMap<>();
+        parameters.put("e", 0.5);
+        parameters.put("max", 1.05);
+        parameters.put("min", 1.05);
+        offering.init(negotiationSession, opponentModel, bestBid, parameters);
+
+        BidDetails maxBid = new SortedOutcomeSpace(utilitySpace).getMaxBidPossible();
+        assertEquals(maxBid.getMyUndiscountedUtil(), offering.determineNextBid().getMyUndiscountedUtil(), 1e-12);
+    }
+
+    private static boolean inWindow(BidDetails bidDetails, double lower, double upper) {
+        double utility = bidDetails.getMyUndiscountedUtil();
+        return utility >= lower - 1e-9 && utility <= upper + 1e-9;
+    }
+
+    private static int count(List<BidDetails> bids, double lower, double upper) {
+        int count = 0;
+        for (BidDetails bidDetails : bids) {
+            if (inWindow(bidDetails, lower, upper)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
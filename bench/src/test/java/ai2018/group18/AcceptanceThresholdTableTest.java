@@ -0,0 +1,60 @@
+package ai2018.group18;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The thresholds of AcceptanceThresholdTable never increase over time and end at the reservation value, with and
+ * without discount, also if no offer is better than the reservation value
+ */
+class AcceptanceThresholdTableTest {
+    private static final double[] DISCOUNT_FACTORS = {0.0, 0.3, 0.6, 0.9, 1.0};
+    private static final double[] RESERVATION_VALUES = {0.0, 0.3, 0.7, 1.0};
+    private static final int[] TIME_STEPS = {1, 10, 200};
+
+    @Test
+    void thresholdsDoNotIncreaseAndEndAtTheReservationValue() {
+        Random random = new Random(21);
+        double[] utilities = new double[500];
+        for (int i = 0; i < utilities.length; i++) {
+            utilities[i] = random.nextDouble();
+        }
+
+        for (double discountFactor : DISCOUNT_FACTORS) {
+            for (double reservationValue : RESERVATION_VALUES) {
+                for (int timeSteps : TIME_STEPS) {
+                    AcceptanceThresholdTable table = new AcceptanceThresholdTable(utilities, discountFactor,
+                            reservationValue, timeSteps);
+                    String parameters = "discount factor " + discountFactor + ", reservation value "
+                            + reservationValue + ", " + timeSteps + " time steps";
+
+                    assertEquals(reservationValue, table.getThreshold(1.0), 0.0, parameters);
+                    // between the time steps too, the thresholds are interpolated
+                    double previous = Double.POSITIVE_INFINITY;
+                    for (int i = 0; i <= 4 * timeSteps; i++) {
+                        double threshold = table.getThreshold((double) i / (4 * timeSteps));
+                        assertTrue(threshold <= previous + 1e-12, "threshold increases at step " + i + ", "
+                                + parameters);
+                        assertTrue(threshold >= reservationValue - 1e-12, "threshold below the reservation value at "
+                                + "step " + i + ", " + parameters);
+                        previous = threshold;
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void offersWorseThanTheReservationValueAreNeverAccepted() {
+        double[] utilities = {0.1, 0.2, 0.3};
+        AcceptanceThresholdTable table = new AcceptanceThresholdTable(utilities, 0.5, 0.4, 10);
+
+        for (int i = 0; i <= 10; i++) {
+            assertEquals(0.4, table.getThreshold(i / 10.0), 1e-12);
+        }
+    }
+}
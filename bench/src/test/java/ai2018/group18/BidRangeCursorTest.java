@@ -0,0 +1,64 @@
+package ai2018.group18;
+
+import ai2018.group18.bench.SyntheticDomainGenerator;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.bidding.BidDetails;
+import genius.core.utility.AdditiveUtilitySpace;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A cursor that re-sorts its bids after the estimate is refined hands out the same bands as a new outcome space
+ * and cursor on the refined estimate
+ */
+class BidRangeCursorTest {
+    private static final double[] LOWER_BOUNDS = {0.8, 0.7, 0.75, 0.6, 0.5};
+
+    @Test
+    void refinedCursorMatchesFreshCursor() {
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(5, 5, 1.0, 20);
+        Domain domain = generator.createDomain();
+        AdditiveUtilitySpace profile = generator.createProfile(domain);
+        UtilityFunctionEstimate estimate = new UtilityFunctionEstimate((AdditiveUtilitySpace) profile.copy(),
+                generator.createRanking(profile, 100).getBidOrder());
+        LazyOutcomeSpace outcomeSpace = new LazyOutcomeSpace(estimate.getUtilitySpace());
+        BidRangeCursor cursor = new BidRangeCursor(outcomeSpace);
+
+        Random random = new Random(20);
+        for (int refinement = 0; refinement < 5; refinement++) {
+            // move the cursor part of the way down, then refine the estimate
+            cursor.moveTo(LOWER_BOUNDS[refinement]);
+            Bid bid = domain.getRandomBid(random);
+            estimate.addRankedBid(bid, random.nextInt(101 + refinement));
+            cursor.updateUtilities(outcomeSpace.updateUtilities());
+
+            BidRangeCursor freshCursor = new BidRangeCursor(new LazyOutcomeSpace(estimate.getUtilitySpace()));
+            for (double lowerBound : LOWER_BOUNDS) {
+                assertEqualBands(new ArrayList<>(freshCursor.moveTo(lowerBound)),
+                        new ArrayList<>(cursor.moveTo(lowerBound)));
+            }
+        }
+    }
+
+    /**
+     * Bids with the same utility may be in a different order, so the order is compared by utility
+     */
+    private static void assertEqualBands(List<BidDetails> expected, List<BidDetails> actual) {
+        assertEquals(expected.size(), actual.size());
+        HashSet<Bid> expectedBids = new HashSet<>();
+        HashSet<Bid> actualBids = new HashSet<>();
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getMyUndiscountedUtil(), actual.get(i).getMyUndiscountedUtil(), 0.0);
+            expectedBids.add(expected.get(i).getBid());
+            actualBids.add(actual.get(i).getBid());
+        }
+        assertEquals(expectedBids, actualBids);
+    }
+}
@@ -0,0 +1,166 @@
+package ai2018.group18;
+
+import ai2018.group18.bench.SyntheticDomainGenerator;
+import genius.core.Bid;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.SortedOutcomeSpace;
+import genius.core.misc.Range;
+import genius.core.utility.AdditiveUtilitySpace;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LazyOutcomeSpace searches the domain without storing it, and finds the same bids as a SortedOutcomeSpace that
+ * enumerates the whole domain
+ */
+class LazyOutcomeSpaceTest {
+    // bids closer than this to a bound are left out, the utilities are summed in a different order
+    private static final double TOLERANCE = 1e-9;
+
+    private AdditiveUtilitySpace utilitySpace;
+    private LazyOutcomeSpace lazyOutcomeSpace;
+    private SortedOutcomeSpace sortedOutcomeSpace;
+    private List<BidDetails> allOutcomes;
+    private Random random;
+
+    @BeforeEach
+    void setup() {
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(4, 5, 1.0, 5);
+        utilitySpace = generator.createProfile(generator.createDomain());
+        lazyOutcomeSpace = new LazyOutcomeSpace(utilitySpace);
+        sortedOutcomeSpace = new SortedOutcomeSpace(utilitySpace);
+        allOutcomes = sortedOutcomeSpace.getAllOutcomes();
+        random = new Random(5);
+    }
+
+    @Test
+    void maxBidPossibleIsTheBestBid() {
+        assertEquals(sortedOutcomeSpace.getMaxBidPossible().getMyUndiscountedUtil(),
+                lazyOutcomeSpace.getMaxBidPossible().getMyUndiscountedUtil(), TOLERANCE);
+        assertEquals(allOutcomes.get(0).getMyUndiscountedUtil(),
+                lazyOutcomeSpace.getMaxBidPossible().getMyUndiscountedUtil(), TOLERANCE);
+    }
+
+    @Test
+    void bidsInRangeAreTheBidsOfTheEnumeratedDomain() {
+        int tested = 0;
+        int empty = 0;
+        while (tested < 200) {
+            double lowerBound = random.nextDouble();
+            // narrow ranges are often empty
+            double upperBound = lowerBound + (tested % 2 == 0 ? 0.1 * random.nextDouble() : 0.001);
+            if (nearBound(lowerBound) || nearBound(upperBound)) {
+                continue;
+            }
+            tested++;
+
+            HashSet<Bid> expected = new HashSet<>();
+            for (BidDetails bidDetails : allOutcomes) {
+                double utility = bidDetails.getMyUndiscountedUtil();
+                if (utility >= lowerBound && utility <= upperBound) {
+                    expected.add(bidDetails.getBid());
+                }
+            }
+            List<BidDetails> bidsInRange = lazyOutcomeSpace.getBidsinRange(new Range(lowerBound, upperBound));
+            assertSortedWithTheirUtility(bidsInRange);
+            if (expected.isEmpty()) {
+                // like SortedOutcomeSpace, the bid nearest to the lower bound
+                empty++;
+                assertEquals(1, bidsInRange.size());
+                assertEquals(nearestDistance(lowerBound),
+                        Math.abs(bidsInRange.get(0).getMyUndiscountedUtil() - lowerBound), TOLERANCE);
+            } else {
+                HashSet<Bid> actual = new HashSet<>();
+                for (BidDetails bidDetails : bidsInRange) {
+                    actual.add(bidDetails.getBid());
+                }
+                assertEquals(expected.size(), bidsInRange.size());
+                assertEquals(expected, actual);
+            }
+        }
+        assertTrue(empty > 0, "no range was empty");
+    }
+
+    @Test
+    void bidNearUtilityIsTheNearestBid() {
+        for (int i = 0; i < 200; i++) {
+            double utility = -0.1 + 1.2 * random.nextDouble();
+            BidDetails bidNearUtility = lazyOutcomeSpace.getBidNearUtility(utility);
+            assertEquals(utilitySpace.getUtility(bidNearUtility.getBid()), bidNearUtility.getMyUndiscountedUtil(),
+                    TOLERANCE);
+            assertEquals(nearestDistance(utility), Math.abs(bidNearUtility.getMyUndiscountedUtil() - utility),
+                    TOLERANCE);
+        }
+    }
+
+    @Test
+    void indexOfBidNearUtilityIsItsIndexInTheEnumeratedDomain() {
+        for (int i = 0; i < 200; i++) {
+            double utility = -0.1 + 1.2 * random.nextDouble();
+            int index = lazyOutcomeSpace.getIndexOfBidNearUtility(utility);
+            double nearestUtility = allOutcomes.get(sortedOutcomeSpace.getIndexOfBidNearUtility(utility))
+                    .getMyUndiscountedUtil();
+
+            // the first of the bids with the nearest utility, bids with almost the same utility may be in any order
+            assertEquals(nearestUtility, allOutcomes.get(index).getMyUndiscountedUtil(), TOLERANCE);
+            assertTrue(index >= countAbove(nearestUtility + TOLERANCE), "index " + index + " is too high");
+            assertTrue(index <= countAbove(nearestUtility - TOLERANCE), "index " + index + " is too low");
+        }
+    }
+
+    /**
+     * @param bidsInRange bids of the lazy outcome space
+     */
+    private void assertSortedWithTheirUtility(List<BidDetails> bidsInRange) {
+        for (int i = 0; i < bidsInRange.size(); i++) {
+            BidDetails bidDetails = bidsInRange.get(i);
+            assertEquals(utilitySpace.getUtility(bidDetails.getBid()), bidDetails.getMyUndiscountedUtil(), TOLERANCE);
+            if (i > 0) {
+                assertTrue(bidsInRange.get(i - 1).getMyUndiscountedUtil() >= bidDetails.getMyUndiscountedUtil());
+            }
+        }
+    }
+
+    /**
+     * @return true if a bid has a utility within the tolerance of the bound
+     */
+    private boolean nearBound(double bound) {
+        for (BidDetails bidDetails : allOutcomes) {
+            if (Math.abs(bidDetails.getMyUndiscountedUtil() - bound) < TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return distance from the utility to the nearest bid of the enumerated domain
+     */
+    private double nearestDistance(double utility) {
+        double distance = Double.POSITIVE_INFINITY;
+        for (BidDetails bidDetails : allOutcomes) {
+            distance = Math.min(distance, Math.abs(bidDetails.getMyUndiscountedUtil() - utility));
+        }
+        return distance;
+    }
+
+    /**
+     * @return amount of bids of the enumerated domain with a higher utility
+     */
+    private int countAbove(double utility) {
+        int count = 0;
+        for (BidDetails bidDetails : allOutcomes) {
+            if (bidDetails.getMyUndiscountedUtil() > utility) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,81 @@
+package ai2018.group18;
+
+import ai2018.group18.bench.SyntheticDomainGenerator;
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.issue.Objective;
+import genius.core.issue.ValueDiscrete;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.Evaluator;
+import genius.core.utility.EvaluatorDiscrete;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A bid added to the ranking gives the same estimate as building it from scratch on the extended ranking
+ */
+class UtilityFunctionEstimateTest {
+    // longer than two blocks of RankedBidBlocks, so the shifts span several blocks
+    private static final int RANKING_LENGTH = 1500;
+
+    @Test
+    void addedBidsGiveTheSameEstimateAsAFreshRanking() {
+        SyntheticDomainGenerator generator = new SyntheticDomainGenerator(5, 6, 1.0, 17);
+        Domain domain = generator.createDomain();
+        AdditiveUtilitySpace profile = generator.createProfile(domain);
+        List<Bid> ranking = new ArrayList<>(generator.createRanking(profile, RANKING_LENGTH).getBidOrder());
+        UtilityFunctionEstimate estimate = new UtilityFunctionEstimate(copy(profile), ranking);
+
+        Random random = new Random(17);
+        List<Bid> sampleBids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sampleBids.add(domain.getRandomBid(random));
+        }
+
+        // worst, in the middle, best, and in the middle again of a ranking that has grown
+        int[] positions = {0, RANKING_LENGTH / 2, RANKING_LENGTH + 2, 600};
+        for (int position : positions) {
+            Bid bid = domain.getRandomBid(random);
+            estimate.addRankedBid(bid, position);
+            ranking.add(position, bid);
+
+            UtilityFunctionEstimate fresh = new UtilityFunctionEstimate(copy(profile), ranking);
+            assertEqualEstimates(fresh, estimate, sampleBids);
+        }
+        assertEquals(positions.length, estimate.getVersion());
+    }
+
+    private static void assertEqualEstimates(UtilityFunctionEstimate expected, UtilityFunctionEstimate actual,
+                                             List<Bid> sampleBids) {
+        for (int j = 0; j < expected.getCounts().length; j++) {
+            assertArrayEquals(expected.getCounts()[j], actual.getCounts()[j], "counts of issue " + j);
+            assertArrayEquals(expected.getRankSums()[j], actual.getRankSums()[j], "rank sums of issue " + j);
+        }
+
+        // issue weights and value weights, as written to the utility space
+        for (Map.Entry<Objective, Evaluator> e : expected.getUtilitySpace().getEvaluators()) {
+            EvaluatorDiscrete expectedEvaluator = (EvaluatorDiscrete) e.getValue();
+            EvaluatorDiscrete actualEvaluator =
+                    (EvaluatorDiscrete) actual.getUtilitySpace().getEvaluator(e.getKey().getNumber());
+            assertEquals(expectedEvaluator.getWeight(), actualEvaluator.getWeight(), 0.0);
+            for (ValueDiscrete value : expectedEvaluator.getValues()) {
+                assertEquals(expectedEvaluator.getDoubleValue(value), actualEvaluator.getDoubleValue(value), 0.0);
+            }
+        }
+
+        for (Bid bid : sampleBids) {
+            assertEquals(expected.getUtilityEstimate(bid), actual.getUtilityEstimate(bid), 0.0);
+        }
+    }
+
+    private static AdditiveUtilitySpace copy(AdditiveUtilitySpace profile) {
+        return (AdditiveUtilitySpace) profile.copy();
+    }
+}
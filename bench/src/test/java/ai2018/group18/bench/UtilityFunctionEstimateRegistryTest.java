@@ -0,0 +1,172 @@
+package ai2018.group18.bench;
+
+import ai2018.group18.Group18_AS;
+import ai2018.group18.Group18_BS;
+import ai2018.group18.Group18_OM;
+import ai2018.group18.Group18_OMS;
+import ai2018.group18.UtilityFunctionEstimate;
+import ai2018.group18.UtilityFunctionEstimateRegistry;
+import genius.core.Bid;
+import genius.core.bidding.BidDetails;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Group18_AS, Group18_BS and Group18_OMS of one session share one estimate of the utility function, so a ranked
+ * bid that is added through Group18_BS changes what every component of the session sees
+ */
+class UtilityFunctionEstimateRegistryTest {
+    private static final int RANKING_LENGTH = 50;
+    private static final int ADDED_BIDS = 20;
+    private static final int PAIRS = 200;
+
+    /**
+     * Components of one session, initialized in the order in which Genius initializes a BOA agent
+     */
+    private static final class Components {
+        final BenchmarkSession session;
+        final Group18_OM opponentModel = new Group18_OM();
+        final Group18_OMS omStrategy;
+        final Group18_BS offeringStrategy = new Group18_BS();
+        final Group18_AS acceptanceStrategy = new Group18_AS();
+
+        Components(BenchmarkSession session) {
+            this.session = session;
+            opponentModel.init(session.negotiationSession, new HashMap<>());
+            omStrategy = newOMStrategy(session, opponentModel);
+            offeringStrategy.init(session.negotiationSession, opponentModel, omStrategy, new HashMap<>());
+            acceptanceStrategy.init(session.negotiationSession, offeringStrategy, opponentModel, new HashMap<>());
+            for (BidDetails bidDetails : session.opponentBids(5)) {
+                session.receiveOpponentBid(bidDetails);
+                opponentModel.updateModel(bidDetails.getBid());
+            }
+        }
+
+        /**
+         * Add ranked bids through Group18_BS, like after preference elicitation
+         * @param random
+         */
+        void addRankedBids(Random random) {
+            for (int i = 0; i < ADDED_BIDS; i++) {
+                BidDetails bidDetails = session.randomBid();
+                offeringStrategy.addRankedBid(bidDetails.getBid(), random.nextInt(RANKING_LENGTH + i + 1));
+            }
+        }
+    }
+
+    @Test
+    void rankedBidIsSeenByEveryComponentOfTheSession() {
+        Components components = new Components(newSession(RANKING_LENGTH, 1));
+        UtilityFunctionEstimate estimate = UtilityFunctionEstimateRegistry.get(components.session.negotiationSession);
+        assertNotNull(estimate);
+        int version = estimate.getVersion();
+        Bid bestBid = components.session.negotiationSession.getOpponentBidHistory().getBestBidDetails().getBid();
+        double bestBidUtility = components.acceptanceStrategy.getOpponentsBestBidUtility(true);
+        Random random = new Random(1);
+        List<List<BidDetails>> pairs = new ArrayList<>();
+        for (int i = 0; i < PAIRS; i++) {
+            pairs.add(Arrays.asList(components.session.randomBid(), components.session.randomBid()));
+        }
+        List<BidDetails> choicesBefore = choices(components.omStrategy, pairs);
+
+        components.addRankedBids(random);
+
+        // Group18_BS refined the estimate of the registry, and Group18_AS evaluates bids with it
+        assertSame(estimate, UtilityFunctionEstimateRegistry.get(components.session.negotiationSession));
+        assertEquals(version + ADDED_BIDS, estimate.getVersion());
+        assertNotEquals(bestBidUtility, components.acceptanceStrategy.getOpponentsBestBidUtility(true));
+        assertEquals(estimate.getUtilityEstimate(bestBid), components.acceptanceStrategy.getOpponentsBestBidUtility(true),
+                0.0);
+
+        // Group18_OMS chooses like a new Group18_OMS on the refined estimate, and some choices changed
+        List<BidDetails> choices = choices(components.omStrategy, pairs);
+        List<BidDetails> freshChoices = choices(newOMStrategy(components.session, components.opponentModel), pairs);
+        boolean changed = false;
+        for (int i = 0; i < PAIRS; i++) {
+            if (freshChoices.get(i) != null) {
+                assertSame(freshChoices.get(i), choices.get(i));
+                changed |= choicesBefore.get(i) != null && choicesBefore.get(i) != choices.get(i);
+            }
+        }
+        assertTrue(changed, "the ranked bids did not change any choice of Group18_OMS");
+    }
+
+    @Test
+    void sessionsDoNotShareTheEstimate() {
+        Components first = new Components(newSession(RANKING_LENGTH, 1));
+        Components second = new Components(newSession(RANKING_LENGTH, 2));
+        UtilityFunctionEstimate firstEstimate = UtilityFunctionEstimateRegistry.get(first.session.negotiationSession);
+        UtilityFunctionEstimate secondEstimate =
+                UtilityFunctionEstimateRegistry.get(second.session.negotiationSession);
+        assertNotSame(firstEstimate, secondEstimate);
+
+        int secondVersion = secondEstimate.getVersion();
+        first.addRankedBids(new Random(1));
+        assertEquals(secondVersion, secondEstimate.getVersion());
+    }
+
+    @Test
+    void noEstimateWithoutUncertainty() {
+        Components components = new Components(newSession(0, 1));
+
+        assertNull(UtilityFunctionEstimateRegistry.get(components.session.negotiationSession));
+        assertThrows(IllegalStateException.class, () -> components.addRankedBids(new Random(1)));
+    }
+
+    /**
+     * @param rankingLength length of the bid ranking, 0 for a session without uncertainty
+     * @param seed
+     * @return session on a small generated domain
+     */
+    private static BenchmarkSession newSession(int rankingLength, long seed) {
+        return new BenchmarkSession(new SyntheticDomainGenerator(4, 4, 1.0, seed), rankingLength, 100, seed);
+    }
+
+    /**
+     * @return opponent model strategy that always draws the bid with the highest rating
+     */
+    private static Group18_OMS newOMStrategy(BenchmarkSession session, Group18_OM opponentModel) {
+        Map<String, Double> parameters = new HashMap<>();
+        parameters.put("gamma_first", 1.0);
+        parameters.put("gamma_best", 0.8);
+        parameters.put("gamma_last", 0.3);
+        parameters.put("bias", 0.0);
+        Group18_OMS omStrategy = new Group18_OMS();
+        omStrategy.init(session.negotiationSession, opponentModel, parameters);
+        return omStrategy;
+    }
+
+    /**
+     * @param omStrategy opponent model strategy with bias 0
+     * @param pairs pairs of candidate bids
+     * @return the bid of every pair with the highest rating, null if both bids have the same rating
+     */
+    private static List<BidDetails> choices(Group18_OMS omStrategy, List<List<BidDetails>> pairs) {
+        List<BidDetails> choices = new ArrayList<>();
+        for (List<BidDetails> pair : pairs) {
+            BidDetails choice = omStrategy.getBid(pair);
+            for (int draw = 0; draw < 10 && choice != null; draw++) {
+                if (omStrategy.getBid(pair) != choice) {
+                    choice = null; // a tie, drawn at random
+                }
+            }
+            choices.add(choice);
+        }
+        return choices;
+    }
+}
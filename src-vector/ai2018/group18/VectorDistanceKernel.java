@@ -0,0 +1,40 @@
+package ai2018.group18;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Distance kernel on the Vector API, needs JDK 16 or later with --add-modules jdk.incubator.vector
+ */
+public class VectorDistanceKernel implements DistanceKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void addSquaredDifferences(double[] column, double reference, double weight, double[] sums, int size) {
+        int c = 0;
+        for (int upper = SPECIES.loopBound(size); c < upper; c += SPECIES.length()) {
+            DoubleVector diff = DoubleVector.fromArray(SPECIES, column, c).sub(reference).mul(weight);
+            diff.fma(diff, DoubleVector.fromArray(SPECIES, sums, c)).intoArray(sums, c);
+        }
+
+        // remaining candidates that do not fill a whole vector
+        for (; c < size; c++) {
+            double diff = weight * (column[c] - reference);
+            sums[c] += diff * diff;
+        }
+    }
+
+    @Override
+    public void subtractDistances(double[] sums, double gamma, double[] ratings, int size) {
+        int c = 0;
+        for (int upper = SPECIES.loopBound(size); c < upper; c += SPECIES.length()) {
+            DoubleVector distance = DoubleVector.fromArray(SPECIES, sums, c).sqrt();
+            distance.mul(-gamma).add(DoubleVector.fromArray(SPECIES, ratings, c)).intoArray(ratings, c);
+        }
+
+        // remaining candidates that do not fill a whole vector
+        for (; c < size; c++) {
+            ratings[c] -= gamma * Math.sqrt(sums[c]);
+        }
+    }
+}
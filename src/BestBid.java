@@ -4,11 +4,16 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
+import ai2018.group18.CompiledEvaluator;
+import ai2018.group18.CompiledOpponentModel;
+import ai2018.group18.LazyOutcomeSpace;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.BOAparameter;
 import genius.core.boaframework.NegotiationSession;
 import genius.core.boaframework.OMStrategy;
 import genius.core.boaframework.OpponentModel;
+import genius.core.boaframework.OutcomeSpace;
+import genius.core.misc.Range;
 
 /**
  * This class uses an opponent model to determine the next bid for the opponent,
@@ -24,6 +29,21 @@ public class BestBid extends OMStrategy {
 	 */
 	double updateThreshold = 1.1;
 
+	/**
+	 * amount of threads for evaluating large lists of bids with a compiled
+	 * opponent model. 0 uses every core, 1 evaluates all bids on a single
+	 * thread.
+	 */
+	int parallelism = 1;
+
+	/**
+	 * minimal amount of bids to evaluate in parallel.
+	 */
+	int parallelThreshold = 2000;
+
+	/** evaluations of the bids, reused between turns */
+	double[] evaluations = new double[0];
+
 	/**
 	 * Initializes the opponent model strategy. If a value for the parameter t
 	 * is given, then it is set to this value. Otherwise, the default value is
@@ -45,6 +65,12 @@ public class BestBid extends OMStrategy {
 		} else {
 			System.out.println("OMStrategy assumed t = 1.1");
 		}
+		if (parameters.get("parallelism") != null) {
+			parallelism = parameters.get("parallelism").intValue();
+		}
+		if (parameters.get("parallel_threshold") != null) {
+			parallelThreshold = parameters.get("parallel_threshold").intValue();
+		}
 	}
 
 	/**
@@ -69,18 +95,32 @@ public class BestBid extends OMStrategy {
 		// to ensure that the opponent model works. If the opponent model
 		// does not work, offer a random bid.
 		boolean allWereZero = true;
-		// 3. Determine the best bid
-		for (BidDetails bid : allBids) {
-			double evaluation = model.getBidEvaluation(bid.getBid());
+		// 3. Evaluate the bids. Compiled models evaluate the whole list in one
+		// batch, in parallel if there are many. Other opponent models are not
+		// guaranteed to be thread-safe, so they evaluate on this thread.
+		if (evaluations.length < allBids.size()) {
+			evaluations = new double[allBids.size()];
+		}
+		if (model instanceof CompiledOpponentModel) {
+			((CompiledOpponentModel) model).getBidEvaluations(allBids, evaluations, parallelism, parallelThreshold);
+		} else {
+			for (int i = 0; i < allBids.size(); i++) {
+				evaluations[i] = model.getBidEvaluation(allBids.get(i).getBid());
+			}
+		}
+
+		// 4. Determine the best bid
+		for (int i = 0; i < allBids.size(); i++) {
+			double evaluation = evaluations[i];
 			if (evaluation > 0.0001) {
 				allWereZero = false;
 			}
 			if (evaluation > bestUtil) {
-				bestBid = bid;
+				bestBid = allBids.get(i);
 				bestUtil = evaluation;
 			}
 		}
-		// 4. The opponent model did not work, therefore, offer a random bid.
+		// 5. The opponent model did not work, therefore, offer a random bid.
 		if (allWereZero) {
 			Random r = new Random();
 			return allBids.get(r.nextInt(allBids.size()));
@@ -88,6 +128,32 @@ public class BestBid extends OMStrategy {
 		return bestBid;
 	}
 
+	/**
+	 * Returns the best bid for the opponent in a utility range. For a lazy
+	 * outcome space and a compiled opponent model the bid is found with a
+	 * bounded search over the score index of the outcome space, instead of
+	 * evaluating every bid in the range.
+	 * 
+	 * @param space
+	 *            outcome space of the bids considered for offering.
+	 * @param range
+	 *            utility range of the bids considered for offering.
+	 * @return bid to be offered to opponent.
+	 */
+	@Override
+	public BidDetails getBid(OutcomeSpace space, Range range) {
+		if (space instanceof LazyOutcomeSpace && model instanceof CompiledOpponentModel) {
+			CompiledEvaluator opponentScores = ((CompiledOpponentModel) model).getCompiledEvaluator();
+			BidDetails bestBid = ((LazyOutcomeSpace) space).getBestBidInRange(range, opponentScores);
+
+			// an empty range or a model that does not work is handled like a list of bids
+			if (bestBid != null && opponentScores.evaluate(bestBid.getBid()) > 0.0001) {
+				return bestBid;
+			}
+		}
+		return super.getBid(space, range);
+	}
+
 	/**
 	 * The opponent model may be updated, unless the time is higher than a given
 	 * constant.
@@ -103,6 +169,10 @@ public class BestBid extends OMStrategy {
 	public Set<BOAparameter> getParameterSpec() {
 		Set<BOAparameter> set = new HashSet<BOAparameter>();
 		set.add(new BOAparameter("t", 1.1, "Time after which the OM should not be updated"));
+		set.add(new BOAparameter("parallelism", 1.0,
+				"Threads for evaluating large lists of bids with a compiled opponent model "
+						+ "(0 uses every core, 1 evaluates on a single thread)"));
+		set.add(new BOAparameter("parallel_threshold", 2000.0, "Minimal amount of bids to evaluate in parallel"));
 		return set;
 	}
 
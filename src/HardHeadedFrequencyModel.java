@@ -1,9 +1,14 @@
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 
+import ai2018.group18.BidCodec;
+import ai2018.group18.CompiledEvaluator;
+import ai2018.group18.CompiledOpponentModel;
+
 import genius.core.Bid;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.BOAparameter;
@@ -12,8 +17,6 @@ import genius.core.boaframework.OpponentModel;
 import genius.core.issue.Issue;
 import genius.core.issue.IssueDiscrete;
 import genius.core.issue.Objective;
-import genius.core.issue.Value;
-import genius.core.issue.ValueDiscrete;
 import genius.core.utility.AdditiveUtilitySpace;
 import genius.core.utility.Evaluator;
 import genius.core.utility.EvaluatorDiscrete;
@@ -25,7 +28,8 @@ import genius.core.utility.EvaluatorDiscrete;
  * 
  * paper: https://ii.tudelft.nl/sites/default/files/boa.pdf
  */
-public class HardHeadedFrequencyModel extends OpponentModel {
+public class HardHeadedFrequencyModel extends OpponentModel
+		implements CompiledOpponentModel {
 
 	/*
 	 * the learning coefficient is the weight that is added each turn to the
@@ -40,6 +44,20 @@ public class HardHeadedFrequencyModel extends OpponentModel {
 	private int learnValueAddition;
 	private int amountOfIssues;
 	private double goldenValue;
+	private BidCodec bidCodec;
+	/*
+	 * issue weights and not normalized value evaluations, in the order of the
+	 * issues in the domain. The opponent utility space is written from these.
+	 */
+	private double[] weights;
+	private double[][] evaluations;
+	private double[] maxEvaluations;
+	private CompiledEvaluator compiledEvaluator;
+	private boolean utilitySpaceOutdated;
+	// reused every turn
+	private BitSet changedIssues;
+	private int[] lastBid;
+	private int[] previousBid;
 
 	@Override
 	public void init(NegotiationSession negotiationSession,
@@ -70,21 +88,16 @@ public class HardHeadedFrequencyModel extends OpponentModel {
 		if (negotiationSession.getOpponentBidHistory().size() < 2) {
 			return;
 		}
-		int numberOfUnchanged = 0;
 		BidDetails oppBid = negotiationSession.getOpponentBidHistory()
 				.getHistory()
 				.get(negotiationSession.getOpponentBidHistory().size() - 1);
 		BidDetails prevOppBid = negotiationSession.getOpponentBidHistory()
 				.getHistory()
 				.get(negotiationSession.getOpponentBidHistory().size() - 2);
-		HashMap<Integer, Integer> lastDiffSet = determineDifference(prevOppBid,
-				oppBid);
+		determineDifference(prevOppBid, oppBid);
 
 		// count the number of changes in value
-		for (Integer i : lastDiffSet.keySet()) {
-			if (lastDiffSet.get(i) == 0)
-				numberOfUnchanged++;
-		}
+		int numberOfUnchanged = amountOfIssues - changedIssues.cardinality();
 
 		// The total sum of weights before normalization.
 		double totalSum = 1D + goldenValue * numberOfUnchanged;
@@ -92,52 +105,93 @@ public class HardHeadedFrequencyModel extends OpponentModel {
 		double maximumWeight = 1D - (amountOfIssues) * goldenValue / totalSum;
 
 		// re-weighing issues while making sure that the sum remains 1
-		for (Integer i : lastDiffSet.keySet()) {
-			Objective issue = opponentUtilitySpace.getDomain()
-					.getObjectivesRoot().getObjective(i);
-			double weight = opponentUtilitySpace.getWeight(i);
-			double newWeight;
-
-			if (lastDiffSet.get(i) == 0 && weight < maximumWeight) {
-				newWeight = (weight + goldenValue) / totalSum;
+		double sumOfWeights = 0;
+		for (int j = 0; j < amountOfIssues; j++) {
+			double weight = weights[j];
+			if (!changedIssues.get(j) && weight < maximumWeight) {
+				weights[j] = (weight + goldenValue) / totalSum;
 			} else {
-				newWeight = weight / totalSum;
+				weights[j] = weight / totalSum;
 			}
-			opponentUtilitySpace.setWeight(issue, newWeight);
+			sumOfWeights += weights[j];
+		}
+		// an unchanged issue at the maximum weight does not get the golden
+		// value, so the sum drops below 1 and the weights are normalized
+		for (int j = 0; j < amountOfIssues; j++) {
+			weights[j] /= sumOfWeights;
 		}
 
 		// Then for each issue value that has been offered last time, a constant
 		// value is added to its corresponding ValueDiscrete.
-		try {
-			for (Entry<Objective, Evaluator> e : opponentUtilitySpace
-					.getEvaluators()) {
-				EvaluatorDiscrete value = (EvaluatorDiscrete) e.getValue();
-				IssueDiscrete issue = ((IssueDiscrete) e.getKey());
-				/*
-				 * add constant learnValueAddition to the current preference of
-				 * the value to make it more important
-				 */
-				ValueDiscrete issuevalue = (ValueDiscrete) oppBid.getBid()
-						.getValue(issue.getNumber());
-				Integer eval = value.getEvaluationNotNormalized(issuevalue);
-				value.setEvaluation(issuevalue, (learnValueAddition + eval));
+		for (int j = 0; j < amountOfIssues; j++) {
+			double[] evaluationsOfIssue = evaluations[j];
+			int valueIndex = lastBid[j];
+			/*
+			 * add constant learnValueAddition to the current preference of
+			 * the value to make it more important
+			 */
+			evaluationsOfIssue[valueIndex] += learnValueAddition;
+			if (evaluationsOfIssue[valueIndex] > maxEvaluations[j]) {
+				maxEvaluations[j] = evaluationsOfIssue[valueIndex];
 			}
-		} catch (Exception ex) {
-			ex.printStackTrace();
+			// every issue gets a new weight and evaluation, so every row
+			// of the compiled evaluator is rebuilt
+			compiledEvaluator.setIssue(j, weights[j] / maxEvaluations[j],
+					evaluationsOfIssue);
 		}
+		utilitySpaceOutdated = true;
 	}
 
+	/**
+	 * Same as the utility in the opponent utility space, but read from the
+	 * compiled evaluator.
+	 */
 	@Override
 	public double getBidEvaluation(Bid bid) {
 		double result = 0;
 		try {
-			result = opponentUtilitySpace.getUtility(bid);
+			result = compiledEvaluator.evaluate(bid);
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
 		return result;
 	}
 
+	@Override
+	public CompiledEvaluator getCompiledEvaluator() {
+		return compiledEvaluator;
+	}
+
+	/**
+	 * @return issue weights in the order of the issues in the domain, do not
+	 *         modify this array
+	 */
+	@Override
+	public double[] getIssueWeights() {
+		return weights;
+	}
+
+	@Override
+	public double getWeight(Issue issue) {
+		for (int j = 0; j < amountOfIssues; j++) {
+			if (bidCodec.getIssueNumber(j) == issue.getNumber()) {
+				return weights[j];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * The utility space is only brought up to date when it is read.
+	 */
+	@Override
+	public AdditiveUtilitySpace getOpponentUtilitySpace() {
+		if (utilitySpaceOutdated) {
+			writeUtilitySpace();
+		}
+		return opponentUtilitySpace;
+	}
+
 	@Override
 	public String getName() {
 		return "HardHeaded Frequency Model";
@@ -157,49 +211,73 @@ public class HardHeadedFrequencyModel extends OpponentModel {
 	private void initializeModel() {
 		double commonWeight = 1D / amountOfIssues;
 
+		bidCodec = new BidCodec(opponentUtilitySpace.getDomain());
+		weights = new double[amountOfIssues];
+		evaluations = new double[amountOfIssues][];
+		maxEvaluations = new double[amountOfIssues];
+		compiledEvaluator = new CompiledEvaluator(bidCodec);
+		changedIssues = new BitSet(amountOfIssues);
+		lastBid = new int[amountOfIssues];
+		previousBid = new int[amountOfIssues];
+
+		for (int j = 0; j < amountOfIssues; j++) {
+			weights[j] = commonWeight;
+			// set all value weights to one (they are normalized when
+			// calculating the utility)
+			evaluations[j] = new double[bidCodec.getNumberOfValues(j)];
+			Arrays.fill(evaluations[j], 1);
+			maxEvaluations[j] = 1;
+			compiledEvaluator.setIssue(j, weights[j], evaluations[j]);
+		}
+
 		for (Entry<Objective, Evaluator> e : opponentUtilitySpace
 				.getEvaluators()) {
-
 			opponentUtilitySpace.unlock(e.getKey());
-			e.getValue().setWeight(commonWeight);
-			try {
-				// set all value weights to one (they are normalized when
-				// calculating the utility)
-				for (ValueDiscrete vd : ((IssueDiscrete) e.getKey())
-						.getValues())
-					((EvaluatorDiscrete) e.getValue()).setEvaluation(vd, 1);
-			} catch (Exception ex) {
-				ex.printStackTrace();
+		}
+		writeUtilitySpace();
+	}
+
+	/**
+	 * Write the weight and evaluation arrays to the opponent utility space.
+	 */
+	private void writeUtilitySpace() {
+		try {
+			for (int j = 0; j < amountOfIssues; j++) {
+				EvaluatorDiscrete evaluator = (EvaluatorDiscrete) opponentUtilitySpace
+						.getEvaluator(bidCodec.getIssueNumber(j));
+				evaluator.setWeight(weights[j]);
+				IssueDiscrete issue = bidCodec.getIssue(j);
+				for (int k = 0; k < evaluations[j].length; k++) {
+					evaluator.setEvaluation(issue.getValue(k),
+							(int) evaluations[j][k]);
+				}
 			}
+		} catch (Exception ex) {
+			ex.printStackTrace();
 		}
+		utilitySpaceOutdated = false;
 	}
 
 	/**
 	 * Determines the difference between bids. For each issue, it is determined
-	 * if the value changed. If this is the case, a 1 is stored in a hashmap for
-	 * that issue, else a 0.
+	 * if the value changed. If this is the case, the bit of that issue is set
+	 * in changedIssues. The value indices of the second bid are left in
+	 * lastBid.
 	 * 
-	 * @param a
+	 * @param first
 	 *            bid of the opponent
-	 * @param another
+	 * @param second
 	 *            bid
-	 * @return
 	 */
-	private HashMap<Integer, Integer> determineDifference(BidDetails first,
-			BidDetails second) {
-
-		HashMap<Integer, Integer> diff = new HashMap<Integer, Integer>();
-		try {
-			for (Issue i : opponentUtilitySpace.getDomain().getIssues()) {
-				Value value1 = first.getBid().getValue(i.getNumber());
-				Value value2 = second.getBid().getValue(i.getNumber());
-				diff.put(i.getNumber(), (value1.equals(value2)) ? 0 : 1);
+	private void determineDifference(BidDetails first, BidDetails second) {
+		changedIssues.clear();
+		bidCodec.encode(first.getBid(), previousBid);
+		bidCodec.encode(second.getBid(), lastBid);
+		for (int j = 0; j < amountOfIssues; j++) {
+			if (previousBid[j] != lastBid[j]) {
+				changedIssues.set(j);
 			}
-		} catch (Exception ex) {
-			ex.printStackTrace();
 		}
-
-		return diff;
 	}
 
-}
\ No newline at end of file
+}
@@ -1,3 +1,4 @@
+import ai2018.group18.LazyOutcomeSpace;
 import genius.core.Bid;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.*;
@@ -13,7 +14,7 @@ import java.util.*;
 
 public class Phoenix_BS extends OfferingStrategy {
 	
-    SortedOutcomeSpace outcomespace;
+    OutcomeSpace outcomespace;
     List<Double> gamma; // weights for the three reference bids
     double bias; // lower bias gives higher ratings a higher probability to be chosen (between 0 and 1)
 
@@ -25,7 +26,7 @@ public class Phoenix_BS extends OfferingStrategy {
         this.omStrategy = omStrategy;
 
         // get outcome and utility spaces and list of issues in this domain
-        outcomespace = new SortedOutcomeSpace(negotiationSession.getUtilitySpace());
+        outcomespace = new LazyOutcomeSpace((AdditiveUtilitySpace) negotiationSession.getUtilitySpace());
     }
 
     @Override
@@ -1,3 +1,6 @@
+import ai2018.group18.BidCodec;
+import ai2018.group18.CompiledEvaluator;
+import ai2018.group18.CompiledOpponentModel;
 import genius.core.Bid;
 import genius.core.boaframework.NegotiationSession;
 import genius.core.boaframework.OpponentModel;
@@ -11,8 +14,9 @@ import genius.core.utility.EvaluatorDiscrete;
 
 import java.util.Map;
 
-public class Phoenix_OM extends OpponentModel {
+public class Phoenix_OM extends OpponentModel implements CompiledOpponentModel {
     int amountOfIssues;
+    private CompiledEvaluator compiledEvaluator;
 
     @Override
     public void init(NegotiationSession negotiationSession,
@@ -38,6 +42,7 @@ public class Phoenix_OM extends OpponentModel {
         Map<Integer, Value> lastBidValues = negotiationSession.getOpponentBidHistory().getLastBid().getValues();
 
         // add 1 to values that match first bid
+        boolean changed = false;
         try{
             for (Map.Entry<Objective, Evaluator> e : opponentUtilitySpace.getEvaluators()) {
                 EvaluatorDiscrete value = (EvaluatorDiscrete) e.getValue();
@@ -54,6 +59,7 @@ public class Phoenix_OM extends OpponentModel {
 
                     // update weight for this issue
                     e.getValue().setWeight(newEval);
+                    changed = true;
                 }
             }
         } catch (Exception e) {
@@ -62,6 +68,11 @@ public class Phoenix_OM extends OpponentModel {
 
         // normalize weights
         opponentUtilitySpace.normalizeWeights();
+
+        // the weights of all issues change when one of them changes, so every row is rebuilt
+        if (changed) {
+            compileAll();
+        }
     }
 
 
@@ -79,6 +90,25 @@ public class Phoenix_OM extends OpponentModel {
                 ((EvaluatorDiscrete) e.getValue()).setEvaluation(valueDiscrete, 1);
             }
         }
+
+        compiledEvaluator = new CompiledEvaluator(new BidCodec(opponentUtilitySpace.getDomain()));
+        compileAll();
+    }
+
+    private void compileAll() {
+        for (int j = 0; j < amountOfIssues; j++) {
+            compiledEvaluator.setIssue(j, opponentUtilitySpace);
+        }
+    }
+
+    @Override
+    public double getBidEvaluation(Bid bid) {
+        return compiledEvaluator.evaluate(bid);
+    }
+
+    @Override
+    public CompiledEvaluator getCompiledEvaluator() {
+        return compiledEvaluator;
     }
 
     @Override
@@ -2,6 +2,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import ai2018.group18.LazyOutcomeSpace;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.BOAparameter;
 import genius.core.boaframework.NegotiationSession;
@@ -9,7 +10,7 @@ import genius.core.boaframework.OMStrategy;
 import genius.core.boaframework.OfferingStrategy;
 import genius.core.boaframework.OpponentModel;
 import genius.core.boaframework.OutcomeSpace;
-import genius.core.boaframework.SortedOutcomeSpace;
+import genius.core.utility.AdditiveUtilitySpace;
 
 /**
  * Bidding class
@@ -24,7 +25,7 @@ public class SqrtTimeBids extends OfferingStrategy {
 	public void init(NegotiationSession negoSession, OpponentModel model, OMStrategy oms,
 			Map<String, Double> parameters) throws Exception {
 		super.init(negoSession, parameters);
-		outcomeSpace = new SortedOutcomeSpace(negotiationSession.getUtilitySpace());
+		outcomeSpace = new LazyOutcomeSpace((AdditiveUtilitySpace) negotiationSession.getUtilitySpace());
 	}
 	
 	@Override
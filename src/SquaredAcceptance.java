@@ -2,6 +2,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import ai2018.group18.AcceptanceThresholdTable;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.AcceptanceStrategy;
 import genius.core.boaframework.Actions;
@@ -19,6 +20,7 @@ public class SquaredAcceptance extends AcceptanceStrategy {
 
 	private double a;
 	private double b;
+	private AcceptanceThresholdTable thresholdTable; // optimal stopping thresholds, null in the hand-tuned mode
 	
     /**
      * Empty constructor for the BOA framework.
@@ -46,6 +48,17 @@ public class SquaredAcceptance extends AcceptanceStrategy {
 			a = 1.2;
 			b = 0.02;
 		}
+
+		// initialize acceptance mode, the threshold table is computed once
+		if (parameters != null && parameters.get("mode") != null && parameters.get("mode").intValue() == 1) {
+			int timeSteps = 200;
+			if (parameters.get("time_steps") != null) {
+				timeSteps = parameters.get("time_steps").intValue();
+			}
+			thresholdTable = new AcceptanceThresholdTable(negotiationSession.getUtilitySpace(),
+					negotiationSession.getDiscountFactor(),
+					negotiationSession.getUtilitySpace().getReservationValueUndiscounted(), timeSteps);
+		}
     }
     
 	@Override
@@ -91,7 +104,10 @@ public class SquaredAcceptance extends AcceptanceStrategy {
         // An acceptable offer: the closer we come to the end of a negotiation, the lower it gets. In the last 2% of rounds it is
         // equal to the minimumoffer variable.
         double acceptableOffer = minimumOffer;
-        if (percentageTimeLeft > b) {
+        if (thresholdTable != null) {
+        	// optimal stopping threshold at the current time
+        	acceptableOffer = thresholdTable.getThreshold(negotiationSession.getTime());
+        } else if (percentageTimeLeft > b) {
         	acceptableOffer = Math.sqrt(percentageTimeLeft*startingDifference) + minimumOffer;
         }
         
@@ -116,6 +132,12 @@ public class SquaredAcceptance extends AcceptanceStrategy {
 		set.add(new BOAparameter("b", 0.02,
 				"The last b percentage of rounds, the agent will accept offers equal to its minimum offer variable"));
 
+		set.add(new BOAparameter("mode", 0.0,
+				"0: hand-tuned acceptance function, 1: optimal stopping thresholds computed once at init"));
+
+		set.add(new BOAparameter("time_steps", 200.0,
+				"Amount of time steps of the optimal stopping thresholds (mode 1)"));
+
 		return set;
 	}
 
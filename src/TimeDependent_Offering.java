@@ -2,6 +2,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import ai2018.group18.LazyOutcomeSpace;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.BOAparameter;
 import genius.core.boaframework.NegotiationSession;
@@ -9,7 +10,8 @@ import genius.core.boaframework.NoModel;
 import genius.core.boaframework.OMStrategy;
 import genius.core.boaframework.OfferingStrategy;
 import genius.core.boaframework.OpponentModel;
-import genius.core.boaframework.SortedOutcomeSpace;
+import genius.core.misc.Range;
+import genius.core.utility.AdditiveUtilitySpace;
 
 /**
  * This is an abstract class used to implement a TimeDependentAgent Strategy
@@ -25,6 +27,9 @@ import genius.core.boaframework.SortedOutcomeSpace;
  */
 public class TimeDependent_Offering extends OfferingStrategy {
 
+	/** Width of the window above the target utility, and of every widening step */
+	private static final double WINDOW = 0.01;
+
 	/**
 	 * k in [0, 1]. For k = 0 the agent starts with a bid of maximum utility
 	 */
@@ -36,7 +41,7 @@ public class TimeDependent_Offering extends OfferingStrategy {
 	/** Concession factor */
 	private double e;
 	/** Outcome space */
-	private SortedOutcomeSpace outcomespace;
+	private LazyOutcomeSpace outcomespace;
 
 	/**
 	 * Method which initializes the agent by setting all parameters. The
@@ -49,7 +54,7 @@ public class TimeDependent_Offering extends OfferingStrategy {
 		if (parameters.get("e") != null) {
 			this.negotiationSession = negoSession;
 
-			outcomespace = new SortedOutcomeSpace(negotiationSession.getUtilitySpace());
+			outcomespace = new LazyOutcomeSpace((AdditiveUtilitySpace) negotiationSession.getUtilitySpace());
 			negotiationSession.setOutcomeSpace(outcomespace);
 
 			this.e = parameters.get("e");
@@ -103,11 +108,39 @@ public class TimeDependent_Offering extends OfferingStrategy {
 		if (opponentModel instanceof NoModel) {
 			nextBid = negotiationSession.getOutcomeSpace().getBidNearUtility(utilityGoal);
 		} else {
-			nextBid = omStrategy.getBid(outcomespace, utilityGoal);
+			nextBid = getBidInWindow(utilityGoal);
 		}
 		return nextBid;
 	}
 
+	/**
+	 * The window above the target utility is widened in steps of 0.01 while
+	 * it is empty, and the best bid is offered once the upper bound reaches
+	 * 1.01. This is the rule of OMStrategy.getBid(OutcomeSpace, Range); the
+	 * lazy outcome space never returns an empty range, so the widening is
+	 * done here, and the opponent model strategy picks the bid from the
+	 * window through getBid(OutcomeSpace, Range), which BestBid answers from
+	 * the score index of the outcome space.
+	 *
+	 * Unlike getBid(SortedOutcomeSpace, double), which this class called
+	 * before, a window that holds only a few bids is not widened, so in
+	 * sparse regions of the outcome space the opponent model strategy
+	 * chooses from fewer bids.
+	 * 
+	 * @param utilityGoal
+	 * @return bid that the opponent model strategy picks from the window
+	 */
+	private BidDetails getBidInWindow(double utilityGoal) {
+		Range window = new Range(utilityGoal, utilityGoal + WINDOW);
+		while (!outcomespace.hasBidInRange(window)) {
+			if (window.getUpperbound() >= 1.01) {
+				return negotiationSession.getMaxBidinDomain();
+			}
+			window.increaseUpperbound(WINDOW);
+		}
+		return omStrategy.getBid(outcomespace, window);
+	}
+
 	/**
 	 * From [1]:
 	 * 
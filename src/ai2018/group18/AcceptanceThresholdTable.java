@@ -0,0 +1,149 @@
+package ai2018.group18;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.issue.Value;
+import genius.core.utility.UtilitySpace;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Optimal stopping thresholds for accepting offers, computed once by backward induction over a grid of time steps.
+ * Every time step one offer arrives, of which the own utility is drawn from the utilities of the outcome space.
+ * An offer is accepted if its discounted utility is at least the expected discounted utility of waiting for the
+ * next offer, at the deadline only the reservation value is left. The negotiation can also be ended at any time for
+ * the reservation value, so no threshold is below it and the thresholds never increase over time.
+ */
+public class AcceptanceThresholdTable {
+    private static final int MAX_SAMPLE_SIZE = 10000; // larger outcome spaces are sampled at random
+    private final double[] thresholds; // undiscounted threshold at every time step, the last one is the deadline
+
+    /**
+     * Constructor that fills the table by backward induction from the deadline
+     * @param utilities own utility of the possible offers
+     * @param discountFactor discount factor of the domain, 0 or 1 if the domain is not discounted
+     * @param reservationValue undiscounted utility of reaching the deadline without agreement
+     * @param timeSteps amount of time steps in the grid
+     */
+    public AcceptanceThresholdTable(double[] utilities, double discountFactor, double reservationValue,
+                                    int timeSteps) {
+        if (utilities.length == 0 || timeSteps < 1) {
+            throw new IllegalArgumentException("Need at least one utility and one time step");
+        }
+
+        // sorted utilities with the sum of every suffix, so the expected value of a step is one binary search
+        double[] sorted = utilities.clone();
+        Arrays.sort(sorted);
+        double[] suffixSums = new double[sorted.length + 1];
+        for (int i = sorted.length - 1; i >= 0; i--) {
+            suffixSums[i] = suffixSums[i + 1] + sorted[i];
+        }
+
+        // value of waiting, discounted to the start of the negotiation
+        thresholds = new double[timeSteps + 1];
+        thresholds[timeSteps] = reservationValue;
+        double value = reservationValue * discount(discountFactor, 1.0);
+        for (int i = timeSteps - 1; i >= 0; i--) {
+            double discount = discount(discountFactor, (double) i / timeSteps);
+            value = Math.max(value, reservationValue * discount);
+            thresholds[i] = value / discount;
+
+            // accept offers at or above the threshold, wait for the next step otherwise
+            int first = firstIndexAtLeast(sorted, thresholds[i]);
+            value = (first * value + discount * suffixSums[first]) / sorted.length;
+        }
+    }
+
+    /**
+     * Constructor that takes the utilities of every bid of small domains and of a random sample of large domains
+     * @param utilitySpace own (estimated) utility space
+     * @param discountFactor discount factor of the domain, 0 or 1 if the domain is not discounted
+     * @param reservationValue undiscounted utility of reaching the deadline without agreement
+     * @param timeSteps amount of time steps in the grid
+     */
+    public AcceptanceThresholdTable(UtilitySpace utilitySpace, double discountFactor, double reservationValue,
+                                    int timeSteps) {
+        this(sampleUtilities(utilitySpace), discountFactor, reservationValue, timeSteps);
+    }
+
+    /**
+     * @param utilitySpace
+     * @return utility of every bid, or of a fixed random sample if the domain is too large
+     */
+    private static double[] sampleUtilities(UtilitySpace utilitySpace) {
+        Domain domain = utilitySpace.getDomain();
+        long numberOfBids = domain.getNumberOfPossibleBids();
+        if (numberOfBids > MAX_SAMPLE_SIZE) {
+            Random random = new Random(0);
+            double[] utilities = new double[MAX_SAMPLE_SIZE];
+            for (int i = 0; i < utilities.length; i++) {
+                utilities[i] = utilitySpace.getUtility(domain.getRandomBid(random));
+            }
+            return utilities;
+        }
+
+        // every bid, numbered as a mixed radix number of value indices
+        BidCodec bidCodec = new BidCodec(domain);
+        double[] utilities = new double[(int) numberOfBids];
+        for (int n = 0; n < utilities.length; n++) {
+            HashMap<Integer, Value> values = new HashMap<>();
+            int rest = n;
+            for (int j = 0; j < bidCodec.getNumberOfIssues(); j++) {
+                int numberOfValues = bidCodec.getNumberOfValues(j);
+                values.put(bidCodec.getIssueNumber(j), bidCodec.getIssue(j).getValue(rest % numberOfValues));
+                rest /= numberOfValues;
+            }
+            utilities[n] = utilitySpace.getUtility(new Bid(domain, values));
+        }
+        return utilities;
+    }
+
+    /**
+     * Linear interpolation between the two nearest time steps
+     * @param time normalized time, between 0 and 1
+     * @return minimal undiscounted utility of an offer worth accepting at this time
+     */
+    public double getThreshold(double time) {
+        int timeSteps = thresholds.length - 1;
+        double position = Math.min(Math.max(time, 0.0), 1.0) * timeSteps;
+        int step = (int) position;
+        if (step >= timeSteps) {
+            return thresholds[timeSteps];
+        }
+        double fraction = position - step;
+        return (1 - fraction) * thresholds[step] + fraction * thresholds[step + 1];
+    }
+
+    /**
+     * @param discountFactor discount factor of the domain, 0 or 1 if the domain is not discounted
+     * @param time normalized time
+     * @return factor of the utility of an agreement at this time
+     */
+    private static double discount(double discountFactor, double time) {
+        if (discountFactor <= 0 || discountFactor >= 1) {
+            return 1.0;
+        }
+        return Math.pow(discountFactor, time);
+    }
+
+    /**
+     * @param sorted utilities sorted ascending
+     * @param threshold
+     * @return index of the first utility of at least the threshold
+     */
+    private static int firstIndexAtLeast(double[] sorted, double threshold) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < threshold) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
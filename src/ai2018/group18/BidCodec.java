@@ -0,0 +1,169 @@
+package ai2018.group18;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.issue.Issue;
+import genius.core.issue.IssueDiscrete;
+import genius.core.issue.ValueDiscrete;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.EvaluatorDiscrete;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encodes bids of a discrete domain as dense arrays of per-issue value indices.
+ * Issues are ordered as in domain.getIssues(), which is also the order of OpponentModel.getIssueWeights().
+ */
+public class BidCodec {
+    private final int[] issueNumbers;
+    private final IssueDiscrete[] issues;
+    private final List<Map<ValueDiscrete, Integer>> valueIndices = new ArrayList<>(); // index of every value
+    private final Map<Bid, Integer> ordinals = new IdentityHashMap<>();
+    private final List<int[]> encodedBids = new ArrayList<>();
+
+    /**
+     * Looks up the evaluation of a single value, only used while building value tables
+     */
+    public interface ValueEvaluation {
+        double evaluate(EvaluatorDiscrete evaluator, ValueDiscrete value);
+    }
+
+    /**
+     * Constructor that stores the discrete issues of the domain
+     * @param domain
+     */
+    public BidCodec(Domain domain) {
+        List<Issue> issuesInThisDomain = domain.getIssues();
+        issueNumbers = new int[issuesInThisDomain.size()];
+        issues = new IssueDiscrete[issuesInThisDomain.size()];
+        for (int j = 0; j < issues.length; j++) {
+            issues[j] = (IssueDiscrete) issuesInThisDomain.get(j);
+            issueNumbers[j] = issues[j].getNumber();
+
+            // IssueDiscrete.getValueIndex searches the list of values, a map lookup does not depend on their amount
+            Map<ValueDiscrete, Integer> indices = new HashMap<>();
+            List<ValueDiscrete> values = issues[j].getValues();
+            for (int k = 0; k < values.size(); k++) {
+                indices.put(values.get(k), k);
+            }
+            valueIndices.add(indices);
+        }
+    }
+
+    /**
+     * Value index of a single issue, does not remember the bid and is safe to call from several threads
+     * @param bid
+     * @param issueIndex position of the issue in the domain
+     * @return index of the value of this issue in the bid
+     */
+    public int valueIndex(Bid bid, int issueIndex) {
+        return valueIndices.get(issueIndex).get((ValueDiscrete) bid.getValue(issueNumbers[issueIndex]));
+    }
+
+    /**
+     * Encode a bid without remembering it, for bids that are only looked at once
+     * @param bid
+     * @param encoded output array, receives the value index for every issue
+     * @return the output array
+     */
+    public int[] encode(Bid bid, int[] encoded) {
+        for (int j = 0; j < issues.length; j++) {
+            encoded[j] = valueIndex(bid, j);
+        }
+        return encoded;
+    }
+
+    /**
+     * Dense number of a bid object, assigned in the order in which bids are first seen. The bid stays reachable
+     * until clear(), so callers that number bids every turn clear the codec when it outgrows their band.
+     * @param bid
+     * @return ordinal of the bid, between 0 and size()
+     */
+    public int ordinal(Bid bid) {
+        Integer ordinal = ordinals.get(bid);
+        if (ordinal == null) {
+            int[] encoded = encode(bid, new int[issues.length]);
+            ordinal = encodedBids.size();
+            encodedBids.add(encoded);
+            ordinals.put(bid, ordinal);
+        }
+        return ordinal;
+    }
+
+    /**
+     * @param ordinal ordinal of a bid that was encoded before
+     * @return value index for every issue
+     */
+    public int[] encoded(int ordinal) {
+        return encodedBids.get(ordinal);
+    }
+
+    /**
+     * @return amount of bids encoded so far
+     */
+    public int size() {
+        return encodedBids.size();
+    }
+
+    /**
+     * Forget every numbered bid, ordinals handed out before are no longer valid
+     */
+    public void clear() {
+        ordinals.clear();
+        encodedBids.clear();
+    }
+
+    /**
+     * Build a table with the evaluation of every value of every issue: table[issueIndex][valueIndex]
+     * @param utilitySpace utility space that holds the evaluators
+     * @param valueEvaluation how to evaluate a value
+     * @return value table
+     */
+    public double[][] valueTable(AdditiveUtilitySpace utilitySpace, ValueEvaluation valueEvaluation) {
+        double[][] table = new double[issues.length][];
+        for (int j = 0; j < issues.length; j++) {
+            EvaluatorDiscrete evaluator = (EvaluatorDiscrete) utilitySpace.getEvaluator(issueNumbers[j]);
+            List<ValueDiscrete> values = issues[j].getValues();
+            table[j] = new double[values.size()];
+            for (int k = 0; k < values.size(); k++) {
+                table[j][k] = valueEvaluation.evaluate(evaluator, values.get(k));
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return amount of issues in this domain
+     */
+    public int getNumberOfIssues() {
+        return issues.length;
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return amount of values of this issue
+     */
+    public int getNumberOfValues(int issueIndex) {
+        return issues[issueIndex].getNumberOfValues();
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return the issue
+     */
+    public IssueDiscrete getIssue(int issueIndex) {
+        return issues[issueIndex];
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return issue number of this issue
+     */
+    public int getIssueNumber(int issueIndex) {
+        return issueNumbers[issueIndex];
+    }
+}
@@ -0,0 +1,159 @@
+package ai2018.group18;
+
+import genius.core.bidding.BidDetails;
+import genius.core.misc.Range;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Band of bids from a lower bound up to the best bid, over bids sorted by utility descending.
+ * Bids are only generated when the lower bound drops below every lower bound seen before, and the band
+ * is handed out as a view on the sorted array instead of a new list.
+ */
+public class BidRangeCursor {
+    private final LazyOutcomeSpace outcomeSpace;
+    private BidDetails[] bids = new BidDetails[16]; // generated bids, sorted by utility descending
+    private double[] utilities = new double[16]; // utility of these bids
+    private int generated; // amount of generated bids
+    private double generatedLowerBound = Double.POSITIVE_INFINITY; // every bid above this bound is generated
+    private int size; // amount of bids in the current band
+    private final List<BidDetails> band = new Band();
+
+    /**
+     * @param outcomeSpace outcome space that generates the bids
+     */
+    public BidRangeCursor(LazyOutcomeSpace outcomeSpace) {
+        this.outcomeSpace = outcomeSpace;
+    }
+
+    /**
+     * Move the lower bound of the band. The returned view is reused, it changes on the next call.
+     * @param lowerBound minimal utility of the bids in the band
+     * @return bids with a utility of at least the lower bound, sorted by utility descending
+     */
+    public List<BidDetails> moveTo(double lowerBound) {
+        // generate the bids between the new lower bound and the lowest bound so far
+        if (lowerBound < generatedLowerBound) {
+            List<BidDetails> newBids = outcomeSpace.getBidsInBand(lowerBound, generatedLowerBound);
+            ensureCapacity(generated + newBids.size());
+            for (BidDetails bidDetails : newBids) {
+                bids[generated] = bidDetails;
+                utilities[generated] = bidDetails.getMyUndiscountedUtil();
+                generated++;
+            }
+            generatedLowerBound = lowerBound;
+        }
+
+        // the band ends at the first bid below the lower bound
+        size = firstIndexBelow(lowerBound);
+
+        // like SortedOutcomeSpace, never hand out an empty band
+        if (size == 0) {
+            return outcomeSpace.getBidsinRange(new Range(lowerBound, 1));
+        }
+        return band;
+    }
+
+    /**
+     * Restore the order of the generated bids after the outcome space updated its utilities. Bids of which the
+     * utility did not change keep their order, only the changed bids are sorted and merged back in. Bids that were
+     * not generated may now lie above the lowest bound so far, so the bound rises by the highest possible increase
+     * and the generated bids below it are generated again on the next move.
+     * @param maxIncrease upper bound on the increase of the utility of any bid, from LazyOutcomeSpace.updateUtilities
+     */
+    public void updateUtilities(double maxIncrease) {
+        if (generated == 0) {
+            return;
+        }
+
+        // split the generated bids in unchanged bids, which stay sorted, and changed bids
+        List<BidDetails> changedBids = new ArrayList<>();
+        int unchanged = 0;
+        for (int i = 0; i < generated; i++) {
+            BidDetails bidDetails = outcomeSpace.getCurrentBidDetails(bids[i]);
+            if (bidDetails.getMyUndiscountedUtil() == utilities[i]) {
+                bids[unchanged] = bidDetails;
+                utilities[unchanged] = utilities[i];
+                unchanged++;
+            } else {
+                changedBids.add(bidDetails);
+            }
+        }
+        changedBids.sort((a, b) -> Double.compare(b.getMyUndiscountedUtil(), a.getMyUndiscountedUtil()));
+
+        // merge both sorted runs from the back, so the unchanged bids can stay in place
+        int i = unchanged - 1;
+        int c = changedBids.size() - 1;
+        for (int k = generated - 1; c >= 0; k--) {
+            BidDetails changed = changedBids.get(c);
+            if (i >= 0 && utilities[i] < changed.getMyUndiscountedUtil()) {
+                bids[k] = bids[i];
+                utilities[k] = utilities[i];
+                i--;
+            } else {
+                bids[k] = changed;
+                utilities[k] = changed.getMyUndiscountedUtil();
+                c--;
+            }
+        }
+
+        // forget the bids below the raised bound, they are generated again together with the bids that rose
+        generatedLowerBound += maxIncrease;
+        int kept = firstIndexBelow(generatedLowerBound);
+        Arrays.fill(bids, kept, generated, null);
+        generated = kept;
+        size = 0;
+    }
+
+    /**
+     * Binary search in the utilities, which are sorted descending
+     * @param lowerBound
+     * @return index of the first generated bid with a utility below the lower bound
+     */
+    private int firstIndexBelow(double lowerBound) {
+        int low = 0;
+        int high = generated;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (utilities[middle] >= lowerBound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param capacity amount of bids that must fit in the arrays
+     */
+    private void ensureCapacity(int capacity) {
+        if (capacity > bids.length) {
+            int newLength = Math.max(capacity, 2 * bids.length);
+            bids = Arrays.copyOf(bids, newLength);
+            utilities = Arrays.copyOf(utilities, newLength);
+        }
+    }
+
+    /**
+     * Read-only view on the first bids of the sorted array
+     */
+    private class Band extends AbstractList<BidDetails> implements RandomAccess {
+        @Override
+        public BidDetails get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return bids[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
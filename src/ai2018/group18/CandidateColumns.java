@@ -0,0 +1,79 @@
+package ai2018.group18;
+
+import genius.core.bidding.BidDetails;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structure-of-arrays layout of a band of candidate bids: one column per issue with the value of that
+ * issue for every candidate, so distance kernels can run over contiguous primitive arrays.
+ */
+public class CandidateColumns {
+    private final BidCodec bidCodec;
+    private final double[][] valueTable;
+    private final double[][] columns; // columns[issueIndex][candidate]
+    private int size;
+
+    /**
+     * @param bidCodec codec of this domain
+     * @param valueTable value of every issue value: valueTable[issueIndex][valueIndex]
+     */
+    public CandidateColumns(BidCodec bidCodec, double[][] valueTable) {
+        this.bidCodec = bidCodec;
+        this.valueTable = valueTable;
+        columns = new double[valueTable.length][0];
+    }
+
+    /**
+     * Fill the columns with the values of these candidates, the arrays are reused between calls
+     * @param candidates band of candidate bids
+     */
+    public void load(List<BidDetails> candidates) {
+        size = candidates.size();
+        if (columns.length > 0 && columns[0].length < size) {
+            for (int j = 0; j < columns.length; j++) {
+                columns[j] = Arrays.copyOf(columns[j], size);
+            }
+        }
+
+        int[] bid = new int[columns.length];
+        for (int c = 0; c < size; c++) {
+            bidCodec.encode(candidates.get(c).getBid(), bid);
+            for (int j = 0; j < bid.length; j++) {
+                columns[j][c] = valueTable[j][bid[j]];
+            }
+        }
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return value of this issue for every candidate, only the first size() entries are in use
+     */
+    public double[] column(int issueIndex) {
+        return columns[issueIndex];
+    }
+
+    /**
+     * @param bid bid encoded as value indices
+     * @param issueIndex position of the issue in the domain
+     * @return value of this issue in the bid
+     */
+    public double value(int[] bid, int issueIndex) {
+        return valueTable[issueIndex][bid[issueIndex]];
+    }
+
+    /**
+     * @return amount of loaded candidates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return amount of issues in this domain
+     */
+    public int getNumberOfIssues() {
+        return columns.length;
+    }
+}
@@ -0,0 +1,139 @@
+package ai2018.group18;
+
+import genius.core.Bid;
+import genius.core.bidding.BidDetails;
+import genius.core.issue.ValueDiscrete;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.EvaluatorDiscrete;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Additive utility function compiled to a single table: table[issueIndex][valueIndex] is the weight of the issue
+ * times the normalized evaluation of the value, so the utility of a bid is the sum of one lookup per issue.
+ * Rows are rebuilt one issue at a time, so a model only pays for the issues that changed.
+ */
+public class CompiledEvaluator {
+    private final BidCodec bidCodec;
+    private final double[][] table;
+    private final int[] rowVersions; // incremented every time a row is rebuilt
+    private int[][] encodedBids = new int[0][]; // encoding of every bid of the last batch, reused between batches
+
+    /**
+     * @param bidCodec codec of the domain, determines the order of the issues and values
+     */
+    public CompiledEvaluator(BidCodec bidCodec) {
+        this.bidCodec = bidCodec;
+        table = new double[bidCodec.getNumberOfIssues()][];
+        rowVersions = new int[table.length];
+        for (int j = 0; j < table.length; j++) {
+            table[j] = new double[bidCodec.getNumberOfValues(j)];
+        }
+    }
+
+    /**
+     * Rebuild the row of an issue: row[k] = scale * evaluations[k]
+     * @param issueIndex position of the issue in the domain
+     * @param scale weight of the issue divided by the highest evaluation of the issue
+     * @param evaluations not normalized evaluation of every value of the issue
+     */
+    public void setIssue(int issueIndex, double scale, double[] evaluations) {
+        double[] row = table[issueIndex];
+        for (int k = 0; k < row.length; k++) {
+            row[k] = scale * evaluations[k];
+        }
+        rowVersions[issueIndex]++;
+    }
+
+    /**
+     * Rebuild the row of an issue from the weight and evaluator of the issue in a utility space
+     * @param issueIndex position of the issue in the domain
+     * @param utilitySpace utility space that holds the evaluator
+     */
+    public void setIssue(int issueIndex, AdditiveUtilitySpace utilitySpace) {
+        int issueNumber = bidCodec.getIssueNumber(issueIndex);
+        EvaluatorDiscrete evaluator = (EvaluatorDiscrete) utilitySpace.getEvaluator(issueNumber);
+        double weight = utilitySpace.getWeight(issueNumber);
+        List<ValueDiscrete> values = bidCodec.getIssue(issueIndex).getValues();
+        double[] row = table[issueIndex];
+        for (int k = 0; k < row.length; k++) {
+            row[k] = weight * evaluator.getEvaluation(values.get(k));
+        }
+        rowVersions[issueIndex]++;
+    }
+
+    /**
+     * Safe to call from several threads, as long as no row is being rebuilt
+     * @param bid
+     * @return utility of the bid
+     */
+    public double evaluate(Bid bid) {
+        double utility = 0;
+        for (int j = 0; j < table.length; j++) {
+            utility += table[j][bidCodec.valueIndex(bid, j)];
+        }
+        return utility;
+    }
+
+    /**
+     * @param encodedBid value index for every issue
+     * @return utility of the bid
+     */
+    public double evaluate(int[] encodedBid) {
+        double utility = 0;
+        for (int j = 0; j < table.length; j++) {
+            utility += table[j][encodedBid[j]];
+        }
+        return utility;
+    }
+
+    /**
+     * Evaluate a whole list of bids. The bids are encoded first, on the calling thread, after which the
+     * evaluation is a tight loop over the encoded bids that runs in parallel if there are enough bids.
+     * Not safe to call from several threads at once.
+     * @param bids bids to evaluate
+     * @param evaluations output array, evaluations[i] is the utility of bids.get(i)
+     * @param parallelism amount of threads, 0 uses every core and 1 evaluates on the calling thread
+     * @param threshold minimal amount of bids to evaluate in parallel
+     */
+    public void evaluate(List<BidDetails> bids, double[] evaluations, int parallelism, int threshold) {
+        int size = bids.size();
+        if (encodedBids.length < size) {
+            int oldLength = encodedBids.length;
+            encodedBids = Arrays.copyOf(encodedBids, Math.max(size, 2 * oldLength));
+            for (int i = oldLength; i < encodedBids.length; i++) {
+                encodedBids[i] = new int[table.length];
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            bidCodec.encode(bids.get(i).getBid(), encodedBids[i]);
+        }
+
+        final int[][] batch = encodedBids;
+        ParallelRating.rate(size, evaluations, i -> evaluate(batch[i]), parallelism, threshold);
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return weighted utility of every value of the issue, do not modify this array
+     */
+    public double[] getRow(int issueIndex) {
+        return table[issueIndex];
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return version of the row of the issue, changes every time the row is rebuilt
+     */
+    public int getRowVersion(int issueIndex) {
+        return rowVersions[issueIndex];
+    }
+
+    /**
+     * @return codec of the domain
+     */
+    public BidCodec getBidCodec() {
+        return bidCodec;
+    }
+}
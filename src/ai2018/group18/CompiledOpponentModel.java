@@ -0,0 +1,28 @@
+package ai2018.group18;
+
+import genius.core.bidding.BidDetails;
+
+import java.util.List;
+
+/**
+ * Opponent model that keeps its estimated utility function as a compiled table
+ */
+public interface CompiledOpponentModel {
+
+    /**
+     * The evaluator is brought up to date by updateModel, only for the issues that changed
+     * @return evaluator with the current weights and evaluations of the model
+     */
+    CompiledEvaluator getCompiledEvaluator();
+
+    /**
+     * Batch version of getBidEvaluation
+     * @param bids bids to evaluate
+     * @param evaluations output array, evaluations[i] is the estimated utility of bids.get(i) for the opponent
+     * @param parallelism amount of threads, 0 uses every core and 1 evaluates on the calling thread
+     * @param threshold minimal amount of bids to evaluate in parallel
+     */
+    default void getBidEvaluations(List<BidDetails> bids, double[] evaluations, int parallelism, int threshold) {
+        getCompiledEvaluator().evaluate(bids, evaluations, parallelism, threshold);
+    }
+}
@@ -0,0 +1,40 @@
+package ai2018.group18;
+
+/**
+ * Weighted euclidean distance from a whole band of candidates to one reference bid, computed column by
+ * column over CandidateColumns. Use select() to get the fastest kernel that this JVM supports.
+ */
+public interface DistanceKernel {
+
+    /**
+     * sums[c] += (weight * (column[c] - reference))^2 for every candidate c
+     * @param column value of one issue for every candidate
+     * @param reference value of this issue in the reference bid
+     * @param weight issue weight
+     * @param sums squared distance summed over the issues so far
+     * @param size amount of candidates
+     */
+    void addSquaredDifferences(double[] column, double reference, double weight, double[] sums, int size);
+
+    /**
+     * ratings[c] -= gamma * sqrt(sums[c]) for every candidate c
+     * @param sums squared distance summed over all issues
+     * @param gamma weight of the reference bid
+     * @param ratings ratings so far
+     * @param size amount of candidates
+     */
+    void subtractDistances(double[] sums, double gamma, double[] ratings, int size);
+
+    /**
+     * The vector kernel is compiled from src-vector and needs the jdk.incubator.vector module,
+     * without it the scalar kernel is used
+     * @return vector kernel if it is available, scalar kernel otherwise
+     */
+    static DistanceKernel select() {
+        try {
+            return (DistanceKernel) Class.forName("ai2018.group18.VectorDistanceKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarDistanceKernel();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ai2018.group18;
+
+import java.util.Arrays;
+
+/**
+ * Per-issue tables of the squared weighted difference between two values of that issue,
+ * so the weighted euclidean distance between two encoded bids is a sum of table lookups.
+ */
+public class DistanceTable {
+    private final int[] numberOfValues;
+    private final double[][] squaredDifferences; // (a - b)^2 per issue, flattened as [a * numberOfValues + b]
+    private final double[][] weightedDifferences; // omega^2 * (a - b)^2 per issue
+    private double[] omega;
+
+    /**
+     * Constructor that precomputes the squared difference of every pair of values of every issue
+     * @param valueTable value of every issue value: valueTable[issueIndex][valueIndex]
+     */
+    public DistanceTable(double[][] valueTable) {
+        numberOfValues = new int[valueTable.length];
+        squaredDifferences = new double[valueTable.length][];
+        weightedDifferences = new double[valueTable.length][];
+
+        for (int j = 0; j < valueTable.length; j++) {
+            double[] values = valueTable[j];
+            int n = values.length;
+            numberOfValues[j] = n;
+            squaredDifferences[j] = new double[n * n];
+            weightedDifferences[j] = new double[n * n];
+
+            for (int a = 0; a < n; a++) {
+                for (int b = 0; b < n; b++) {
+                    double diff = values[a] - values[b];
+                    squaredDifferences[j][a * n + b] = diff * diff;
+                }
+            }
+        }
+    }
+
+    /**
+     * Scale the tables by the issue weights, only if the weights changed since the last call
+     * @param issueWeights issue weights of the opponent model
+     * @return true if the tables were rescaled
+     */
+    public boolean setIssueWeights(double[] issueWeights) {
+        if (Arrays.equals(omega, issueWeights)) {
+            return false;
+        }
+        omega = issueWeights.clone();
+
+        for (int j = 0; j < numberOfValues.length; j++) {
+            double omegaSquared = omega[j] * omega[j];
+            double[] squared = squaredDifferences[j];
+            double[] weighted = weightedDifferences[j];
+            for (int k = 0; k < squared.length; k++) {
+                weighted[k] = omegaSquared * squared[k];
+            }
+        }
+        return true;
+    }
+
+    /**
+     * calculate weighted euclidean distance with the current issue weights
+     * @param a bid encoded as value indices
+     * @param b reference bid encoded as value indices
+     * @return euclidean distance of omega * (a - b)
+     */
+    public double distance(int[] a, int[] b) {
+        double diffSquareSum = 0.0;
+        for (int j = 0; j < a.length; j++) {
+            diffSquareSum += weightedDifferences[j][a[j] * numberOfValues[j] + b[j]];
+        }
+
+        return Math.sqrt(diffSquareSum);
+    }
+}
@@ -1,14 +1,12 @@
 package ai2018.group18;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import genius.core.Bid;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.*;
 import genius.core.uncertainty.UserModel;
-import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.UtilitySpace;
 
 /**
  * This acceptance class will accept bids if they are higher than the threshold,
@@ -21,6 +19,7 @@ public class Group18_AS extends AcceptanceStrategy {
     private UtilityFunctionEstimate utilityFunctionEstimate;
     private double a; // alpha
     private double b; // beta
+    private AcceptanceThresholdTable thresholdTable; // thresholds of discounted domains, null in the hand-tuned mode
 
     @Override
     public void init(NegotiationSession negoSession, OfferingStrategy strat, OpponentModel opponentModel,
@@ -31,10 +30,8 @@ public class Group18_AS extends AcceptanceStrategy {
         userModel = negotiationSession.getUserModel();
         if (userModel != null) { // "enable uncertainty" is checked
 
-            // create utility space with estimated preferences
-            List<Bid> bidOrder = userModel.getBidRanking().getBidOrder();
-            AdditiveUtilitySpace utilitySpaceEstimate = (AdditiveUtilitySpace) negotiationSession.getUtilitySpace().copy();
-            utilityFunctionEstimate = new UtilityFunctionEstimate(utilitySpaceEstimate, bidOrder);
+            // estimated preferences, shared with the other components of this session
+            utilityFunctionEstimate = UtilityFunctionEstimateRegistry.get(negotiationSession);
         }
 
         // initialize alpha and beta
@@ -45,6 +42,20 @@ public class Group18_AS extends AcceptanceStrategy {
 			a = 1.4;
 			b = 0.02;
 		}
+
+        // initialize acceptance mode, the threshold table is computed once
+        if (parameters != null && parameters.get("mode") != null && parameters.get("mode").intValue() == 1) {
+            int timeSteps = 200;
+            if (parameters.get("time_steps") != null) {
+                timeSteps = parameters.get("time_steps").intValue();
+            }
+            UtilitySpace ownUtilitySpace = negotiationSession.getUtilitySpace();
+            if (userModel != null) {
+                ownUtilitySpace = utilityFunctionEstimate.getUtilitySpace();
+            }
+            thresholdTable = new AcceptanceThresholdTable(ownUtilitySpace, negotiationSession.getDiscountFactor(),
+                    negotiationSession.getUtilitySpace().getReservationValueUndiscounted(), timeSteps);
+        }
     }
     
 	@Override
@@ -76,7 +87,7 @@ public class Group18_AS extends AcceptanceStrategy {
     /**
      * Determines the acceptability based on the acceptance function.
      * Acceptance function is based on the time left and the difference between our best offer and the opponents best offer.
-     * for (un)discounted or (un)certainty domains
+     * for (un)discounted or (un)certainty domains, or on the threshold table in discounted domains if the mode is 1
      */
     public Actions determineAcceptabilityAction(boolean discount, boolean uncertainty) {
         double percentageTimeLeft = getPercentageTimeLeft();
@@ -95,7 +106,9 @@ public class Group18_AS extends AcceptanceStrategy {
 
         // find minimum offer that we are willing to accept at the current time
         double acceptableOffer;
-        if (discount) {
+        if (discount && thresholdTable != null) {
+            acceptableOffer = thresholdTable.getThreshold(negotiationSession.getTime());
+        } else if (discount) {
             acceptableOffer = findAcceptableOfferDiscounted(minimumOffer);
         } else {
             acceptableOffer = findAcceptableOffer(minimumOffer, percentageTimeLeft, myFirstBidUtility, difference);
@@ -237,6 +250,12 @@ public class Group18_AS extends AcceptanceStrategy {
 		set.add(new BOAparameter("b", 0.02,
 				"The last b percentage of rounds, the agent will accept offers equal to its minimum offer variable"));
 
+		set.add(new BOAparameter("mode", 0.0,
+				"0: hand-tuned acceptance function, 1: optimal stopping thresholds computed once at init, in discounted domains"));
+
+		set.add(new BOAparameter("time_steps", 200.0,
+				"Amount of time steps of the optimal stopping thresholds (mode 1)"));
+
 		return set;
 	}
 
@@ -15,7 +15,8 @@ import java.util.Set;
 public class Group18_BS extends OfferingStrategy {
 
     private UserModel userModel;
-    private SortedOutcomeSpace outcomeSpace;
+    private LazyOutcomeSpace outcomeSpace;
+    private BidRangeCursor rangeCursor;
     private UtilityFunctionEstimate utilityFunctionEstimate;
 
     @Override
@@ -28,20 +29,21 @@ public class Group18_BS extends OfferingStrategy {
         userModel = negotiationSession.getUserModel();
         if (userModel != null) { // "enable uncertainty" is checked
 
-            // create utility space with estimated preferences
-            List<Bid> bidOrder = userModel.getBidRanking().getBidOrder();
-            AdditiveUtilitySpace utilitySpaceEstimate = (AdditiveUtilitySpace) negotiationSession.getUtilitySpace().copy();
-            utilityFunctionEstimate = new UtilityFunctionEstimate(utilitySpaceEstimate, bidOrder);
-            utilitySpaceEstimate = utilityFunctionEstimate.getUtilitySpace();
+            // estimated preferences, shared with the other components of this session
+            utilityFunctionEstimate = UtilityFunctionEstimateRegistry.get(negotiationSession);
+            AdditiveUtilitySpace utilitySpaceEstimate = utilityFunctionEstimate.getUtilitySpace();
 
             // create outcomeSpace from utility space estimate and set it for negotiation session
-            outcomeSpace = new SortedOutcomeSpace(utilitySpaceEstimate);
+            outcomeSpace = new LazyOutcomeSpace(utilitySpaceEstimate);
             this.negotiationSession.setOutcomeSpace(outcomeSpace);
 
         } else { // "enable uncertainty" is unchecked
 
-            outcomeSpace = new SortedOutcomeSpace(negotiationSession.getUtilitySpace());
+            outcomeSpace = new LazyOutcomeSpace((AdditiveUtilitySpace) negotiationSession.getUtilitySpace());
         }
+
+        // the band of available bids only grows when the lower bound drops
+        rangeCursor = new BidRangeCursor(outcomeSpace);
     }
 
     @Override
@@ -122,11 +124,26 @@ public class Group18_BS extends OfferingStrategy {
 
     /**
      *
-     * @param range in which the bids must be found.
-     * @return list of bids which a utility in the given range.
+     * @param range in which the bids must be found, the upper bound is always the best bid.
+     * @return view on the bids with a utility in the given range, only valid until the next call.
      */
     public List<BidDetails> getAvailableBids(Range range) {
-    	return outcomeSpace.getBidsinRange(range);
+    	return rangeCursor.moveTo(range.getLowerbound());
+    }
+
+    /**
+     * Add a newly ranked bid to the estimated preferences, for example after preference elicitation. The outcome
+     * space and the band only re-sort the bids of which the estimated utility changed, Group18_OMS rebuilds its
+     * distance table from the new estimate on its next bid.
+     * @param bid
+     * @param position position in the current ranking, between 0 (worst) and the size of the ranking (best)
+     */
+    public void addRankedBid(Bid bid, int position) {
+        if (utilityFunctionEstimate == null) {
+            throw new IllegalStateException("Preferences are only estimated when uncertainty is enabled");
+        }
+        utilityFunctionEstimate.addRankedBid(bid, position);
+        rangeCursor.updateUtilities(outcomeSpace.updateUtilities());
     }
 
     /**
@@ -3,18 +3,33 @@ package ai2018.group18;
 import genius.core.Bid;
 import genius.core.boaframework.NegotiationSession;
 import genius.core.boaframework.OpponentModel;
+import genius.core.issue.Issue;
 import genius.core.issue.IssueDiscrete;
 import genius.core.issue.Objective;
-import genius.core.issue.Value;
-import genius.core.issue.ValueDiscrete;
 import genius.core.utility.AdditiveUtilitySpace;
 import genius.core.utility.Evaluator;
 import genius.core.utility.EvaluatorDiscrete;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Map;
 
-public class Group18_OM extends OpponentModel {
+/**
+ * Frequency model backed by primitive arrays: a count for every value of every issue and a weight for every
+ * issue. The opponent utility space is only brought up to date when someone asks for it.
+ */
+public class Group18_OM extends OpponentModel implements CompiledOpponentModel {
     int amountOfIssues;
+    private BidCodec bidCodec;
+    private double[][] counts; // count of every value: counts[issueIndex][valueIndex]
+    private double[] maxCounts; // highest count of every issue, evaluations are normalized by it
+    private double[] weights; // normalized issue weights
+    private double[] scales; // weight / max count of every issue, utility is the sum of scale * count
+    private CompiledEvaluator compiledEvaluator;
+    private BitSet countedIssues; // issues of which a count changed in the last update, reused
+    private boolean utilitySpaceOutdated;
+    private int[] encodedFirstBid; // the first bid never changes, so it is encoded once
+    private int[] encodedLastBid; // reused, the last bid is a new object every turn
 
     @Override
     public void init(NegotiationSession negotiationSession, Map<String, Double> parameters) {
@@ -42,54 +57,135 @@ public class Group18_OM extends OpponentModel {
         }
 
         // get the values of the first and last bid
-        Map<Integer, Value> firstBidValues = negotiationSession.getOpponentBidHistory().getFirstBidDetails().getBid().getValues();
-        Map<Integer, Value> lastBidValues = negotiationSession.getOpponentBidHistory().getLastBid().getValues();
+        if (encodedFirstBid == null) {
+            encodedFirstBid = bidCodec.encode(negotiationSession.getOpponentBidHistory().getFirstBidDetails().getBid(),
+                    new int[amountOfIssues]);
+        }
+        int[] firstBid = encodedFirstBid;
+        int[] lastBid = bidCodec.encode(negotiationSession.getOpponentBidHistory().getLastBid(), encodedLastBid);
 
         // add 1 to values that match first bid
-        try{
-            for (Map.Entry<Objective, Evaluator> e : opponentUtilitySpace.getEvaluators()) {
-                EvaluatorDiscrete value = (EvaluatorDiscrete) e.getValue();
-                IssueDiscrete issue = ((IssueDiscrete) e.getKey());
-
-                // get values of last and first bid of the opponent
-                ValueDiscrete lastBidValue = (ValueDiscrete) lastBidValues.get(issue.getNumber());
-                ValueDiscrete firstBidValue = (ValueDiscrete) firstBidValues.get(issue.getNumber());
-
-                if (firstBidValue == lastBidValue) {
-                    // add 1 to value for this issue
-                    int eval = value.getEvaluationNotNormalized(firstBidValue);
-                    int newEval = eval + 1;
-                    value.setEvaluation(firstBidValue, newEval);
-
-                    // update weight for this issue
-                    e.getValue().setWeight(newEval);
-                }
+        countedIssues.clear();
+        double sumOfWeights = 0;
+        for (int j = 0; j < amountOfIssues; j++) {
+            if (firstBid[j] == lastBid[j]) {
+                countedIssues.set(j);
+                // add 1 to value for this issue
+                double newCount = counts[j][firstBid[j]] + 1;
+                counts[j][firstBid[j]] = newCount;
+                maxCounts[j] = Math.max(maxCounts[j], newCount);
+
+                // update weight for this issue
+                weights[j] = newCount;
             }
-        } catch (Exception e) {
-            e.printStackTrace();;
+            sumOfWeights += weights[j];
         }
 
-        // normalize weights
-        opponentUtilitySpace.normalizeWeights();
+        // normalize weights and rebuild the compiled rows of the issues that changed
+        for (int j = 0; j < amountOfIssues; j++) {
+            weights[j] /= sumOfWeights;
+            double scale = weights[j] / maxCounts[j];
+            if (scale != scales[j] || countedIssues.get(j)) {
+                scales[j] = scale;
+                compiledEvaluator.setIssue(j, scale, counts[j]);
+            }
+        }
+        utilitySpaceOutdated = true;
     }
 
     /**
      * Initialize Omega with ones for each value in every issue of this domain.
      */
     public void initializeOmega() {
-        for (Map.Entry<Objective, Evaluator> e : opponentUtilitySpace.getEvaluators()) {
+        bidCodec = new BidCodec(opponentUtilitySpace.getDomain());
+        counts = new double[amountOfIssues][];
+        maxCounts = new double[amountOfIssues];
+        weights = new double[amountOfIssues];
+        scales = new double[amountOfIssues];
+        encodedFirstBid = null;
+        encodedLastBid = new int[amountOfIssues];
+        compiledEvaluator = new CompiledEvaluator(bidCodec);
+        countedIssues = new BitSet(amountOfIssues);
+
+        for (int j = 0; j < amountOfIssues; j++) {
+            // set weights
+            weights[j] = 1.0 / amountOfIssues;
 
+            // set all values to one
+            counts[j] = new double[bidCodec.getNumberOfValues(j)];
+            Arrays.fill(counts[j], 1);
+            maxCounts[j] = 1;
+            scales[j] = weights[j] / maxCounts[j];
+            compiledEvaluator.setIssue(j, scales[j], counts[j]);
+        }
+
+        for (Map.Entry<Objective, Evaluator> e : opponentUtilitySpace.getEvaluators()) {
             // Clear a lock on the weight of an objective or issue.
             opponentUtilitySpace.unlock(e.getKey());
+        }
+        utilitySpaceOutdated = true;
+    }
 
-            // set weights
-            e.getValue().setWeight(1.0 / amountOfIssues);
+    /**
+     * Sum of weight * normalized count over the issues, the same as the utility in the opponent utility space.
+     * Read from the compiled table
+     * @param bid
+     * @return estimated utility of the bid for the opponent
+     */
+    @Override
+    public double getBidEvaluation(Bid bid) {
+        return compiledEvaluator.evaluate(bid);
+    }
 
-            // set all values to one
-            for (ValueDiscrete valueDiscrete : ((IssueDiscrete) e.getKey()).getValues()) {
-                ((EvaluatorDiscrete) e.getValue()).setEvaluation(valueDiscrete, 1);
+    @Override
+    public CompiledEvaluator getCompiledEvaluator() {
+        return compiledEvaluator;
+    }
+
+    /**
+     * @return issue weights in the order of the issues in the domain, do not modify this array
+     */
+    @Override
+    public double[] getIssueWeights() {
+        return weights;
+    }
+
+    @Override
+    public double getWeight(Issue issue) {
+        for (int j = 0; j < amountOfIssues; j++) {
+            if (bidCodec.getIssueNumber(j) == issue.getNumber()) {
+                return weights[j];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return opponent utility space with the current counts and weights
+     */
+    @Override
+    public AdditiveUtilitySpace getOpponentUtilitySpace() {
+        if (utilitySpaceOutdated) {
+            writeUtilitySpace();
+        }
+        return opponentUtilitySpace;
+    }
+
+    /**
+     * Write the counts and weights to the opponent utility space
+     */
+    private void writeUtilitySpace() {
+        for (int j = 0; j < amountOfIssues; j++) {
+            int issueNumber = bidCodec.getIssueNumber(j);
+            EvaluatorDiscrete evaluator = (EvaluatorDiscrete) opponentUtilitySpace.getEvaluator(issueNumber);
+            evaluator.setWeight(weights[j]);
+
+            IssueDiscrete issue = bidCodec.getIssue(j);
+            for (int k = 0; k < counts[j].length; k++) {
+                evaluator.setEvaluation(issue.getValue(k), (int) counts[j][k]);
             }
         }
+        utilitySpaceOutdated = false;
     }
 
     @Override
@@ -1,14 +1,9 @@
 package ai2018.group18;
 
-import genius.core.Bid;
 import genius.core.bidding.BidDetails;
 import genius.core.boaframework.*;
-import genius.core.issue.Issue;
-import genius.core.issue.Value;
-import genius.core.issue.ValueDiscrete;
 import genius.core.uncertainty.UserModel;
 import genius.core.utility.AdditiveUtilitySpace;
-import genius.core.utility.EvaluatorDiscrete;
 
 import java.util.*;
 
@@ -17,8 +12,18 @@ public class Group18_OMS extends OMStrategy {
     private UserModel userModel;
     private UtilityFunctionEstimate utilityFunctionEstimate;
     private AdditiveUtilitySpace additiveUtilitySpace;
-    private List<Double> gamma; // weights for the three reference bids
+    private BidCodec bidCodec;
+    private ReferenceDistanceCache distanceCache; // distance of every candidate to every reference bid
+    private int estimateVersion; // version of the estimate that the distance table was built from
+    private double[] gamma; // weights for the three reference bids
     private double bias; // lower bias gives higher ratings a higher probability to be chosen (between 0 and 1)
+    private double timeBudget; // milliseconds for rating candidates each turn, 0 rates every candidate
+    private int parallelism; // threads for rating candidates, 0 uses every core and 1 disables parallel rating
+    private int parallelThreshold; // minimal amount of candidates to rate in parallel
+    private double ratedFraction; // fraction of the candidates rated in the last turn
+    private double[] ratings = new double[0]; // reused between turns
+    private int[] ratedBids = new int[0]; // index of the candidate of every rating in anytime mode
+    private int[] candidates = new int[0]; // ordinal of every candidate, reused between turns
 
 	@Override
 	public void init(NegotiationSession negotiationSession, OpponentModel model, Map<String, Double> parameters) {
@@ -27,32 +32,48 @@ public class Group18_OMS extends OMStrategy {
         userModel = negotiationSession.getUserModel();
         if (userModel != null) { // "enable uncertainty" is checked
 
-            // create utility space with estimated preferences
-            List<Bid> bidOrder = userModel.getBidRanking().getBidOrder();
-            AdditiveUtilitySpace utilitySpaceEstimate = (AdditiveUtilitySpace) negotiationSession.getUtilitySpace().copy();
-            utilityFunctionEstimate = new UtilityFunctionEstimate(utilitySpaceEstimate, bidOrder);
+            // estimated preferences, shared with the other components of this session
+            utilityFunctionEstimate = UtilityFunctionEstimateRegistry.get(negotiationSession);
             additiveUtilitySpace = utilityFunctionEstimate.getUtilitySpace();
 
         } else { // "enable uncertainty" is unchecked
 
             additiveUtilitySpace = (AdditiveUtilitySpace) negotiationSession.getUtilitySpace();
         }
+
+        // encode bids as value indices and look up the value of every issue value once
+        bidCodec = new BidCodec(additiveUtilitySpace.getDomain());
+        createDistanceCache();
 		
 		// initialize gamma and bias
         if (parameters != null && parameters.get("gamma_first") != null && parameters.get("gamma_best") != null &&
                 parameters.get("gamma_last") != null && parameters.get("bias") != null) {
-            gamma = new ArrayList<>();
-            gamma.add(parameters.get("gamma_first"));
-            gamma.add(parameters.get("gamma_best"));
-            gamma.add(parameters.get("gamma_last"));
+            gamma = new double[] {parameters.get("gamma_first"), parameters.get("gamma_best"),
+                    parameters.get("gamma_last")};
             bias = parameters.get("bias");
         } else {
-            gamma = new ArrayList<>();
-            gamma.add(1.0);
-            gamma.add(0.8);
-            gamma.add(0.3);
+            gamma = new double[] {1.0, 0.8, 0.3};
             bias = 0.25;
         }
+
+        // initialize time budget, anytime mode is off by default
+        if (parameters != null && parameters.get("time_budget") != null) {
+            timeBudget = parameters.get("time_budget");
+        } else {
+            timeBudget = 0;
+        }
+
+        // initialize parallel rating of large bands, off by default
+        if (parameters != null && parameters.get("parallelism") != null) {
+            parallelism = parameters.get("parallelism").intValue();
+        } else {
+            parallelism = 1;
+        }
+        if (parameters != null && parameters.get("parallel_threshold") != null) {
+            parallelThreshold = parameters.get("parallel_threshold").intValue();
+        } else {
+            parallelThreshold = 2000;
+        }
 	}
 
     /**
@@ -64,15 +85,114 @@ public class Group18_OMS extends OMStrategy {
         // get available bids greater than minimal utility and get reference bids
         List<BidDetails> referenceBids = getReferenceBids();
 
-        // compute rating for all available bids
-        List<Double> ratings = new ArrayList<>();
+        // the values of the issues changed with the estimate, so every cached distance is stale
+        if (utilityFunctionEstimate != null && utilityFunctionEstimate.getVersion() != estimateVersion) {
+            createDistanceCache();
+        }
+
+        // only distances to references that changed (usually just the last bid) are recomputed
+        distanceCache.trim(allBids.size());
+        distanceCache.setIssueWeights(model.getIssueWeights());
+        for (int i = 0; i < referenceBids.size(); i++) {
+            distanceCache.setReferenceBid(i, referenceBids.get(i).getBid());
+        }
+
+        if (ratings.length < allBids.size()) {
+            ratings = new double[allBids.size()];
+        }
+
+        // anytime mode: rate as many bids as the time budget allows and draw from the rated bids
+        if (timeBudget > 0) {
+            int rated = rateWithinTimeBudget(allBids);
+            ratedFraction = (double) rated / allBids.size();
+            return allBids.get(ratedBids[RatingSampler.draw(ratings, rated, bias)]);
+        }
+
+        // encode all available bids first, the codec and the cache only grow on this thread
+        if (candidates.length < allBids.size()) {
+            candidates = new int[allBids.size()];
+        }
         for (int i = 0; i < allBids.size(); i++) {
-            ratings.add(i, computeRating(allBids.get(i), referenceBids, gamma));
+            candidates[i] = bidCodec.ordinal(allBids.get(i).getBid());
         }
+        distanceCache.ensureCapacity(bidCodec.size());
+
+        // compute rating for all available bids, in parallel if there are many
+        final int[] ordinals = candidates;
+        ParallelRating.rate(allBids.size(), ratings, i -> computeRating(ordinals[i]), parallelism,
+                parallelThreshold);
+        ratedFraction = 1.0;
 
         // choose bid randomly, where bids with higher rating have higher probability to be chosen
         return drawBidFollowRating(allBids, ratings, bias);
 	}
+
+    /**
+     * Look up the value of every issue value in the (estimated) utility space, and start with an empty cache
+     */
+    private void createDistanceCache() {
+        DistanceTable distanceTable = new DistanceTable(bidCodec.valueTable(additiveUtilitySpace,
+                (evaluator, value) -> evaluator.getDoubleValue(value)));
+        distanceCache = new ReferenceDistanceCache(bidCodec, distanceTable, 3);
+        if (utilityFunctionEstimate != null) {
+            estimateVersion = utilityFunctionEstimate.getVersion();
+        }
+    }
+
+    /**
+     * Rate bids in a stratified random order until every bid is rated or the time budget runs out.
+     * The bids are visited with a random start and a golden ratio stride, so the rated bids are spread over
+     * the whole band and the ratings rated so far are always a valid sample.
+     * @param allBids list of available bids
+     * @return amount of rated bids, at least one
+     */
+    private int rateWithinTimeBudget(List<BidDetails> allBids) {
+        long deadline = System.nanoTime() + (long) (timeBudget * 1000000);
+        int size = allBids.size();
+        if (ratedBids.length < size) {
+            ratedBids = new int[size];
+        }
+
+        // a stride without common divisors with the size visits every bid exactly once
+        int stride = Math.max(1, (int) (size * 0.6180339887));
+        while (gcd(stride, size) != 1) {
+            stride++;
+        }
+
+        int index = (int) (Math.random() * size);
+        int rated = 0;
+        while (rated < size) {
+            ratings[rated] = computeRating(bidCodec.ordinal(allBids.get(index).getBid()));
+            ratedBids[rated] = index;
+            rated++;
+            index = (int) ((index + (long) stride) % size);
+
+            // check the clock every 64 ratings
+            if ((rated & 63) == 0 && System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        return rated;
+    }
+
+    /**
+     * @return greatest common divisor of a and b
+     */
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * @return fraction of the available bids that was rated in the last call of getBid
+     */
+    public double getRatedFraction() {
+        return ratedFraction;
+    }
 	
 	@Override
 	public boolean canUpdateOM() {
@@ -80,47 +200,15 @@ public class Group18_OMS extends OMStrategy {
 	}
 
     /**
-     * compute rating of a bid against reference bids
-     * @param bidDetails compute for this bid
-     * @param referenceBids first, best and last bids of the opponent
-     * @param gamma weights for the three reference bids
+     * compute rating of a bid against the reference bids set in the distance cache
+     * @param bid ordinal of the bid in the bid codec
      * @return rating (closer to zero is more similar)
      */
-	public double computeRating(BidDetails bidDetails, List<BidDetails> referenceBids, List<Double> gamma) {
-        Bid bid = bidDetails.getBid();
-        List<Issue> issues = bid.getIssues();
-        Map<Integer, Value> values = bid.getValues();
-
+	private double computeRating(int bid) {
         double rating = 0;
-        // compare bid to every reference bid
-        for (int i = 0; i < referenceBids.size(); i++) {
-            Bid referenceBid = referenceBids.get(i).getBid();
-            Map<Integer, Value> referenceBidValues = referenceBid.getValues();
-
-            // get issue weights
-            double[] omegaArray = model.getIssueWeights();
-
-            // for every issue in this domain
-            double[] bidValueArray = new double[issues.size()];
-            double[] referenceBidValueArray = new double[issues.size()];
-            for (int j = 0; j < issues.size(); j++) {
-                int issueNumber = issues.get(j).getNumber();
-
-                // convert Value of the issue to ValueDiscrete
-                EvaluatorDiscrete evaluatorDiscrete = (EvaluatorDiscrete) additiveUtilitySpace.getEvaluator(issueNumber);
-                ValueDiscrete referenceValue = (ValueDiscrete) referenceBidValues.get(issueNumber);
-                ValueDiscrete value = (ValueDiscrete) values.get(issueNumber);
-
-                // get bid value and reference bid value
-                bidValueArray[j] = evaluatorDiscrete.getDoubleValue(value);
-                referenceBidValueArray[j] = evaluatorDiscrete.getDoubleValue(referenceValue);
-            }
-
-            // calculate weighted euclidean distance
-            double distance = euclideanDistance(omegaArray, bidValueArray, referenceBidValueArray);
-
-            // sum weighted distance
-            rating += gamma.get(i) * distance;
+        // compare bid to every reference bid and sum weighted distance
+        for (int i = 0; i < gamma.length; i++) {
+            rating += gamma[i] * distanceCache.distance(i, bid);
         }
 
         return -1 * rating;
@@ -129,60 +217,12 @@ public class Group18_OMS extends OMStrategy {
     /**
      * choose bid randomly, where bids with higher rating have higher probability to be chosen
      * @param availableBids list of available bids
-     * @param ratings list of ratings for these available bids
+     * @param ratings ratings for these available bids, in the same order
      * @param bias amount of bias towards highest rating (between 0 and 1)
      * @return bid
      */
-	public BidDetails drawBidFollowRating(List<BidDetails> availableBids, List<Double> ratings, double bias) {
-        TreeMap<Double, List<BidDetails>> sortedBids = new TreeMap<>();
-        double lowestRating = 0;
-        double highestRating = -1.0 * Double.MAX_VALUE;
-
-        for (int i = 0; i < availableBids.size(); i++) {
-            // get bid details and corresponding rating
-            BidDetails bidDetails = availableBids.get(i);
-            double rating = ratings.get(i);
-
-            // update lowest or highest rating
-            if (rating > highestRating) {
-                highestRating = rating;
-            }
-            if (rating < lowestRating) {
-                lowestRating = rating;
-            }
-
-            // bids with same rating gets put into the same list
-            if (sortedBids.containsKey(rating)) {
-                List<BidDetails> bidsWithSameRating = sortedBids.get(rating);
-                bidsWithSameRating.add(bidDetails);
-                sortedBids.replace(rating, bidsWithSameRating);
-            } else {
-                List<BidDetails> bidsWithSameRating = new ArrayList<>();
-                bidsWithSameRating.add(bidDetails);
-                sortedBids.put(rating, bidsWithSameRating);
-            }
-        }
-
-        // sample a double between lowest rating and highest rating, with more bias towards highest rating
-        double sampleRating = lowestRating + (highestRating - lowestRating) * Math.pow(Math.random(), bias);
-        Map.Entry<Double, List<BidDetails>> ceiling = sortedBids.ceilingEntry(sampleRating);
-        Map.Entry<Double, List<BidDetails>> floor = sortedBids.floorEntry(sampleRating);
-
-        // check which key is closer to sample rating
-        List<BidDetails> closestBids;
-        if ((ceiling.getKey() - sampleRating) < (sampleRating - floor.getKey())) {
-            // ceiling key is closer
-            closestBids = ceiling.getValue();
-        } else {
-            // floor key is closer
-            closestBids = floor.getValue();
-        }
-
-        // choose random bid from closest bids
-        int size = closestBids.size();
-        int index = (int) (Math.random() * size);
-
-        return closestBids.get(index);
+	private BidDetails drawBidFollowRating(List<BidDetails> availableBids, double[] ratings, double bias) {
+        return availableBids.get(RatingSampler.draw(ratings, availableBids.size(), bias));
     }
 	
     /**
@@ -197,22 +237,6 @@ public class Group18_OMS extends OMStrategy {
 
        return referenceBids;
    }
-   
-   /**
-   * calculate weighted euclidean distance
-   * @param omega issues weights
-   * @param a issues values
-   * @param b reference issues values
-   * @return euclidean distance of omega * (a - b)
-   */
-  public double euclideanDistance(double[] omega, double[] a, double[] b) {
-      double diff_square_sum = 0.0;
-      for (int i = 0; i < omega.length; i++) {
-          diff_square_sum += Math.pow(omega[i] * (a[i] - b[i]), 2);
-      }
-
-      return Math.sqrt(diff_square_sum);
-  }
 
 	@Override
 	public Set<BOAparameter> getParameterSpec() {
@@ -225,6 +249,12 @@ public class Group18_OMS extends OMStrategy {
                 "Importance of the last bid of the opponent"));
         set.add(new BOAparameter("bias", 0.25,
                 "Lower bias: higher ratings have higher probability (between 0 and 1)"));
+        set.add(new BOAparameter("time_budget", 0.0,
+                "Milliseconds for rating bids each turn, the rest of the band is skipped (0 rates every bid)"));
+        set.add(new BOAparameter("parallelism", 1.0,
+                "Threads for rating large bands of bids (0 uses every core, 1 rates on a single thread)"));
+        set.add(new BOAparameter("parallel_threshold", 2000.0,
+                "Minimal amount of bids to rate in parallel"));
         return set;
 	}
 
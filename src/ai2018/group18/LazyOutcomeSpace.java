@@ -0,0 +1,656 @@
+package ai2018.group18;
+
+import genius.core.Bid;
+import genius.core.Domain;
+import genius.core.bidding.BidDetails;
+import genius.core.boaframework.OutcomeSpace;
+import genius.core.issue.Value;
+import genius.core.issue.ValueDiscrete;
+import genius.core.misc.Range;
+import genius.core.utility.AdditiveUtilitySpace;
+import genius.core.utility.EvaluatorDiscrete;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome space for additive utility spaces that never enumerates the whole domain.
+ * Bids are generated on request with a branch-and-bound search over the per-issue value utilities,
+ * sorted in descending order, so only bids inside the requested utility band are generated.
+ */
+public class LazyOutcomeSpace extends OutcomeSpace {
+    private static final double EPSILON = 1e-9; // slack on the bounds, sums are rounded in a different order
+    private final Domain domain;
+    private final BidCodec bidCodec;
+    // values of every issue in the domain, sorted by utility descending
+    private final ValueDiscrete[][] sortedValues;
+    private final double[][] sortedUtilities; // weighted utility of these values
+    private final int[][] sortedValueIndices; // position of the sorted values in their issue
+    private final int[][] valuePositions; // position of every value of an issue in the sorted values
+    // the same arrays in branching order: largest utility range first
+    private final int[] issueNumbers;
+    private final int[] issueIndices; // position of these issues in the domain
+    private final int[][] valueIndices;
+    private final ValueDiscrete[][] values;
+    private final double[][] utilities;
+    private final double[] maxRest; // highest utility that the issues from this depth on can add
+    private final double[] minRest; // lowest utility that the issues from this depth on can add
+    private final long[] radix; // position of every issue of the domain in the mixed radix number of a bid
+    private final boolean numbered; // false if the domain has more bids than fit in a long
+    // bids generated by the current and the previous request, so a band that is requested again reuses its bids
+    private Map<Long, BidDetails> generatedBids = new HashMap<>();
+    private Map<Long, BidDetails> previousBids = new HashMap<>();
+    private BidDetails maxBid;
+    private BidDetails minBid;
+    private CompiledEvaluator scoredBy; // opponent model of the score index
+    private int[] scoreVersions; // version of the row of every issue when it was copied to the index
+    private double[][] scores; // opponent score of every value, in the same order as the values
+    private double[] maxScoreRest; // highest score that the issues from this depth on can add
+
+    /**
+     * Constructor that sorts the values of every issue by their weighted utility
+     * @param utilitySpace additive utility space with discrete issues
+     */
+    public LazyOutcomeSpace(AdditiveUtilitySpace utilitySpace) {
+        this.utilitySpace = utilitySpace;
+        domain = utilitySpace.getDomain();
+        bidCodec = new BidCodec(domain);
+        int n = bidCodec.getNumberOfIssues();
+
+        // weighted utility of every value of every issue, sorted descending
+        sortedValues = new ValueDiscrete[n][];
+        sortedUtilities = new double[n][];
+        sortedValueIndices = new int[n][];
+        valuePositions = new int[n][];
+        for (int j = 0; j < n; j++) {
+            sortIssue(j, valueUtilities(j));
+        }
+
+        issueNumbers = new int[n];
+        issueIndices = new int[n];
+        valueIndices = new int[n][];
+        values = new ValueDiscrete[n][];
+        utilities = new double[n][];
+        maxRest = new double[n + 1];
+        minRest = new double[n + 1];
+        orderIssues();
+
+        // number every bid, so a bid that is generated again is only created once
+        radix = new long[n];
+        long product = 1;
+        boolean fits = true;
+        for (int j = 0; j < n && fits; j++) {
+            radix[j] = product;
+            try {
+                product = Math.multiplyExact(product, bidCodec.getNumberOfValues(j));
+            } catch (ArithmeticException e) {
+                fits = false;
+            }
+        }
+        numbered = fits;
+    }
+
+    /**
+     * @param issueIndex position of the issue in the domain
+     * @return weighted utility of every value of the issue, in the order of the values in the issue
+     */
+    private double[] valueUtilities(int issueIndex) {
+        int issueNumber = bidCodec.getIssueNumber(issueIndex);
+        EvaluatorDiscrete evaluator = (EvaluatorDiscrete) ((AdditiveUtilitySpace) utilitySpace).getEvaluator(issueNumber);
+        double weight = ((AdditiveUtilitySpace) utilitySpace).getWeight(issueNumber);
+
+        List<ValueDiscrete> valuesOfIssue = bidCodec.getIssue(issueIndex).getValues();
+        double[] valueUtilities = new double[valuesOfIssue.size()];
+        for (int k = 0; k < valuesOfIssue.size(); k++) {
+            valueUtilities[k] = weight * evaluator.getEvaluation(valuesOfIssue.get(k));
+        }
+        return valueUtilities;
+    }
+
+    /**
+     * Sort the values of an issue by their utility, descending
+     * @param issueIndex position of the issue in the domain
+     * @param valueUtilities weighted utility of every value of the issue
+     */
+    private void sortIssue(int issueIndex, final double[] valueUtilities) {
+        List<ValueDiscrete> valuesOfIssue = bidCodec.getIssue(issueIndex).getValues();
+        Integer[] valueOrder = new Integer[valueUtilities.length];
+        for (int k = 0; k < valueOrder.length; k++) {
+            valueOrder[k] = k;
+        }
+        Arrays.sort(valueOrder, (a, b) -> Double.compare(valueUtilities[b], valueUtilities[a]));
+
+        sortedValues[issueIndex] = new ValueDiscrete[valueOrder.length];
+        sortedUtilities[issueIndex] = new double[valueOrder.length];
+        sortedValueIndices[issueIndex] = new int[valueOrder.length];
+        valuePositions[issueIndex] = new int[valueOrder.length];
+        for (int k = 0; k < valueOrder.length; k++) {
+            sortedValues[issueIndex][k] = valuesOfIssue.get(valueOrder[k]);
+            sortedUtilities[issueIndex][k] = valueUtilities[valueOrder[k]];
+            sortedValueIndices[issueIndex][k] = valueOrder[k];
+            valuePositions[issueIndex][valueOrder[k]] = k;
+        }
+    }
+
+    /**
+     * Put the issues in branching order and compute the bounds on the utility of the remaining issues
+     */
+    private void orderIssues() {
+        int n = issueNumbers.length;
+
+        // branch on issues with the largest utility range first, so pruning happens early
+        Integer[] order = new Integer[n];
+        for (int j = 0; j < n; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(range(sortedUtilities[b]), range(sortedUtilities[a])));
+
+        for (int d = 0; d < n; d++) {
+            issueNumbers[d] = bidCodec.getIssueNumber(order[d]);
+            issueIndices[d] = order[d];
+            valueIndices[d] = sortedValueIndices[order[d]];
+            values[d] = sortedValues[order[d]];
+            utilities[d] = sortedUtilities[order[d]];
+        }
+
+        // bounds on the utility of the remaining issues
+        for (int d = n - 1; d >= 0; d--) {
+            maxRest[d] = maxRest[d + 1] + utilities[d][0];
+            minRest[d] = minRest[d + 1] + utilities[d][utilities[d].length - 1];
+        }
+    }
+
+    /**
+     * Re-read the utility space after its issue weights or value evaluations changed, for example after a refined
+     * estimate. Only issues of which a value utility changed are sorted again. Bids handed out before keep their old
+     * utility, getCurrentBidDetails gives their current one.
+     * @return upper bound on the increase of the utility of any bid, including slack for rounding
+     */
+    public double updateUtilities() {
+        boolean changed = false;
+        double maxIncrease = EPSILON;
+        for (int j = 0; j < sortedUtilities.length; j++) {
+            double[] valueUtilities = valueUtilities(j);
+
+            // highest increase of a value of this issue
+            double maxIssueIncrease = Double.NEGATIVE_INFINITY;
+            boolean issueChanged = false;
+            for (int k = 0; k < valueUtilities.length; k++) {
+                double increase = valueUtilities[k] - sortedUtilities[j][valuePositions[j][k]];
+                maxIssueIncrease = Math.max(maxIssueIncrease, increase);
+                issueChanged |= increase != 0;
+            }
+
+            if (issueChanged) {
+                sortIssue(j, valueUtilities);
+                maxIncrease += maxIssueIncrease;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return 0;
+        }
+
+        orderIssues();
+        maxBid = null;
+        minBid = null;
+        scoredBy = null;
+
+        return maxIncrease;
+    }
+
+    /**
+     * @param bidDetails bid generated by this outcome space
+     * @return the bid with its current utility, the same object if the utility did not change
+     */
+    public BidDetails getCurrentBidDetails(BidDetails bidDetails) {
+        double utility = utility(toChoice(bidDetails.getBid()));
+        if (utility == bidDetails.getMyUndiscountedUtil()) {
+            return bidDetails;
+        }
+        return new BidDetails(bidDetails.getBid(), utility);
+    }
+
+    /**
+     * Like SortedOutcomeSpace, the bid nearest to the lower bound is returned if no bid is in the range
+     * @param range in which the bids must be found.
+     * @return list of bids with a utility in the given range, sorted by utility descending
+     */
+    @Override
+    public List<BidDetails> getBidsinRange(Range range) {
+        startRequest();
+        List<BidDetails> bidsInRange = new ArrayList<>();
+        collectInRange(0, 0.0, range.getLowerbound(), range.getUpperbound(), new int[values.length], bidsInRange);
+        if (bidsInRange.isEmpty()) {
+            bidsInRange.add(getBidNearUtility(range.getLowerbound()));
+        }
+        bidsInRange.sort((a, b) -> Double.compare(b.getMyUndiscountedUtil(), a.getMyUndiscountedUtil()));
+        return bidsInRange;
+    }
+
+    /**
+     * @param lower lowest utility, inclusive
+     * @param upper highest utility, exclusive
+     * @return list of bids with lower <= utility < upper, sorted by utility descending, empty if there are none
+     */
+    public List<BidDetails> getBidsInBand(double lower, double upper) {
+        startRequest();
+        List<BidDetails> bidsInBand = new ArrayList<>();
+        collectInRange(0, 0.0, lower, upper, new int[values.length], bidsInBand);
+        bidsInBand.removeIf(bid -> bid.getMyUndiscountedUtil() >= upper);
+        bidsInBand.sort((a, b) -> Double.compare(b.getMyUndiscountedUtil(), a.getMyUndiscountedUtil()));
+        return bidsInBand;
+    }
+
+    /**
+     * @param utility target utility
+     * @return bid with the utility closest to the target utility
+     */
+    @Override
+    public BidDetails getBidNearUtility(double utility) {
+        startRequest();
+        NearestSearch search = new NearestSearch(utility);
+        search.run(0, 0.0);
+        return toBidDetails(search.bestChoice);
+    }
+
+    /**
+     * Stops at the first bid in the range, so it is cheaper than getBidsinRange
+     * @param range utility range, inclusive
+     * @return true if a bid has a utility in the range
+     */
+    public boolean hasBidInRange(Range range) {
+        return findInRange(0, 0.0, range.getLowerbound(), range.getUpperbound());
+    }
+
+    /**
+     * @return bid with the highest value of every issue
+     */
+    @Override
+    public BidDetails getMaxBidPossible() {
+        if (maxBid == null) {
+            maxBid = toBidDetails(new int[values.length]);
+        }
+        return maxBid;
+    }
+
+    /**
+     * @return bid with the lowest value of every issue
+     */
+    @Override
+    public BidDetails getMinBidPossible() {
+        if (minBid == null) {
+            int[] choice = new int[values.length];
+            for (int d = 0; d < values.length; d++) {
+                choice[d] = values[d].length - 1;
+            }
+            minBid = toBidDetails(choice);
+        }
+        return minBid;
+    }
+
+    /**
+     * Enumerates the whole domain, only use this for small domains
+     * @return all bids, sorted by utility descending
+     */
+    @Override
+    public List<BidDetails> getAllOutcomes() {
+        return getBidsinRange(new Range(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY));
+    }
+
+    /**
+     * Best bid for the opponent in a utility band. The search is bounded by both the own utility and the opponent
+     * score, so most of the band is never visited. The scores are kept in an index that only copies the rows of
+     * the opponent model that changed since the last call.
+     * @param range utility band, inclusive
+     * @param opponentScores compiled opponent model, in the order of the issues and values in the domain
+     * @return bid in the band with the highest opponent score, null if there is no bid in the band
+     */
+    public BidDetails getBestBidInRange(Range range, CompiledEvaluator opponentScores) {
+        startRequest();
+        updateScores(opponentScores);
+        BestSearch search = new BestSearch(range.getLowerbound(), range.getUpperbound());
+        search.run(0, 0.0, 0.0);
+        return search.bestChoice == null ? null : toBidDetails(search.bestChoice);
+    }
+
+    /**
+     * Copy the rows of the opponent model that were rebuilt since the last call to the score index
+     * @param opponentScores compiled opponent model
+     */
+    private void updateScores(CompiledEvaluator opponentScores) {
+        int n = values.length;
+        if (scoredBy != opponentScores) {
+            scoredBy = opponentScores;
+            scoreVersions = new int[n];
+            Arrays.fill(scoreVersions, -1);
+            scores = new double[n][];
+            for (int d = 0; d < n; d++) {
+                scores[d] = new double[values[d].length];
+            }
+            maxScoreRest = new double[n + 1];
+        }
+
+        boolean changed = false;
+        for (int d = 0; d < n; d++) {
+            int version = opponentScores.getRowVersion(issueIndices[d]);
+            if (version != scoreVersions[d]) {
+                double[] row = opponentScores.getRow(issueIndices[d]);
+                for (int k = 0; k < scores[d].length; k++) {
+                    scores[d][k] = row[valueIndices[d][k]];
+                }
+                scoreVersions[d] = version;
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return;
+        }
+
+        for (int d = n - 1; d >= 0; d--) {
+            double maxScore = Double.NEGATIVE_INFINITY;
+            for (double score : scores[d]) {
+                maxScore = Math.max(maxScore, score);
+            }
+            maxScoreRest[d] = maxScoreRest[d + 1] + maxScore;
+        }
+    }
+
+    /**
+     * Bids are not stored, so the index is counted: the bids with a higher utility than the nearest bid are counted
+     * with the same bounds as the searches, whole subtrees above it at once.
+     * @param utility target utility
+     * @return index in getAllOutcomes() of the first bid with the utility of the bid nearest to the target utility
+     */
+    @Override
+    public int getIndexOfBidNearUtility(double utility) {
+        double nearestUtility = getBidNearUtility(utility).getMyUndiscountedUtil();
+        long[] subtreeSizes = new long[values.length + 1];
+        subtreeSizes[values.length] = 1;
+        for (int d = values.length - 1; d >= 0; d--) {
+            subtreeSizes[d] = saturatedMultiply(subtreeSizes[d + 1], values[d].length);
+        }
+        return (int) Math.min(countAbove(0, 0.0, nearestUtility, subtreeSizes), Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param depth current issue in branching order
+     * @param sum utility of the values chosen so far
+     * @param utility
+     * @param subtreeSizes amount of bids below every depth
+     * @return amount of bids in this subtree with a higher utility
+     */
+    private long countAbove(int depth, double sum, double utility, long[] subtreeSizes) {
+        if (depth == values.length) {
+            return sum > utility ? 1 : 0;
+        }
+
+        long count = 0;
+        double[] utilitiesOfIssue = utilities[depth];
+        for (int k = 0; k < utilitiesOfIssue.length; k++) {
+            double newSum = sum + utilitiesOfIssue[k];
+
+            // values are sorted descending, so no later value can get above the utility either
+            if (newSum + maxRest[depth + 1] < utility - EPSILON) {
+                break;
+            }
+            // every bid of this subtree is above the utility
+            if (newSum + minRest[depth + 1] > utility + EPSILON) {
+                count = saturatedAdd(count, subtreeSizes[depth + 1]);
+                continue;
+            }
+            count = saturatedAdd(count, countAbove(depth + 1, newSum, utility, subtreeSizes));
+        }
+        return count;
+    }
+
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long saturatedMultiply(long a, long b) {
+        return a > Long.MAX_VALUE / b ? Long.MAX_VALUE : a * b;
+    }
+
+    /**
+     * Depth first search that only visits branches that can still reach the range [lower, upper]
+     * @param depth current issue in branching order
+     * @param sum utility of the values chosen so far
+     * @param lower lower bound of the range
+     * @param upper upper bound of the range
+     * @param choice chosen value index of every issue
+     * @param bidsInRange bids found so far
+     */
+    private void collectInRange(int depth, double sum, double lower, double upper, int[] choice,
+                                List<BidDetails> bidsInRange) {
+        if (depth == values.length) {
+            if (sum >= lower && sum <= upper) {
+                bidsInRange.add(toBidDetails(choice));
+            }
+            return;
+        }
+
+        double[] utilitiesOfIssue = utilities[depth];
+        for (int k = 0; k < utilitiesOfIssue.length; k++) {
+            double newSum = sum + utilitiesOfIssue[k];
+
+            // values are sorted descending, so no later value can reach the lower bound either
+            if (newSum + maxRest[depth + 1] < lower - EPSILON) {
+                break;
+            }
+            // this value is too good, a lower value may still fit
+            if (newSum + minRest[depth + 1] > upper + EPSILON) {
+                continue;
+            }
+
+            choice[depth] = k;
+            collectInRange(depth + 1, newSum, lower, upper, choice, bidsInRange);
+        }
+    }
+
+    /**
+     * Depth first search with the same bounds as collectInRange, that stops at the first bid in the range
+     * @param depth current issue in branching order
+     * @param sum utility of the values chosen so far
+     * @param lower lower bound of the range
+     * @param upper upper bound of the range
+     * @return true if a bid in this subtree lies in the range
+     */
+    private boolean findInRange(int depth, double sum, double lower, double upper) {
+        if (depth == values.length) {
+            return sum >= lower && sum <= upper;
+        }
+
+        double[] utilitiesOfIssue = utilities[depth];
+        for (int k = 0; k < utilitiesOfIssue.length; k++) {
+            double newSum = sum + utilitiesOfIssue[k];
+            if (newSum + maxRest[depth + 1] < lower - EPSILON) {
+                break;
+            }
+            if (newSum + minRest[depth + 1] > upper + EPSILON) {
+                continue;
+            }
+            if (findInRange(depth + 1, newSum, lower, upper)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Branch-and-bound search for the bid with the utility closest to a target utility
+     */
+    private class NearestSearch {
+        private final double target;
+        private final int[] choice = new int[values.length];
+        private int[] bestChoice;
+        private double bestDistance = Double.POSITIVE_INFINITY;
+
+        NearestSearch(double target) {
+            this.target = target;
+        }
+
+        void run(int depth, double sum) {
+            if (depth == values.length) {
+                double distance = Math.abs(sum - target);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    bestChoice = choice.clone();
+                }
+                return;
+            }
+
+            double[] utilitiesOfIssue = utilities[depth];
+            for (int k = 0; k < utilitiesOfIssue.length && bestDistance > 0; k++) {
+                double newSum = sum + utilitiesOfIssue[k];
+
+                // only visit branches that can beat the best distance so far
+                if (newSum + maxRest[depth + 1] < target - bestDistance - EPSILON) {
+                    break;
+                }
+                if (newSum + minRest[depth + 1] > target + bestDistance + EPSILON) {
+                    continue;
+                }
+
+                choice[depth] = k;
+                run(depth + 1, newSum);
+            }
+        }
+    }
+
+    /**
+     * Branch-and-bound search for the bid with the highest opponent score in a utility band
+     */
+    private class BestSearch {
+        private final double lower;
+        private final double upper;
+        private final int[] choice = new int[values.length];
+        private int[] bestChoice;
+        private double bestScore = Double.NEGATIVE_INFINITY;
+
+        BestSearch(double lower, double upper) {
+            this.lower = lower;
+            this.upper = upper;
+        }
+
+        void run(int depth, double sum, double score) {
+            if (depth == values.length) {
+                if (sum >= lower && sum <= upper && score > bestScore) {
+                    bestScore = score;
+                    bestChoice = choice.clone();
+                }
+                return;
+            }
+
+            double[] utilitiesOfIssue = utilities[depth];
+            double[] scoresOfIssue = scores[depth];
+            for (int k = 0; k < utilitiesOfIssue.length; k++) {
+                double newSum = sum + utilitiesOfIssue[k];
+
+                // same bounds on the own utility as collectInRange
+                if (newSum + maxRest[depth + 1] < lower - EPSILON) {
+                    break;
+                }
+                if (newSum + minRest[depth + 1] > upper + EPSILON) {
+                    continue;
+                }
+                // only visit branches that can beat the best score so far
+                double newScore = score + scoresOfIssue[k];
+                if (newScore + maxScoreRest[depth + 1] <= bestScore) {
+                    continue;
+                }
+
+                choice[depth] = k;
+                run(depth + 1, newSum, newScore);
+            }
+        }
+    }
+
+    /**
+     * Start a request that generates bids. Only the bids of the previous request are kept for reuse, so the memory
+     * of the memo is bounded by the two most recent bands instead of every band of the session.
+     */
+    private void startRequest() {
+        Map<Long, BidDetails> oldBids = previousBids;
+        previousBids = generatedBids;
+        oldBids.clear();
+        generatedBids = oldBids;
+    }
+
+    /**
+     * The utility is summed in branching order, exactly like the search does
+     * @param choice chosen value index of every issue, in branching order
+     * @return bid details of the chosen values, the same object as in the previous request if it generated them
+     */
+    private BidDetails toBidDetails(int[] choice) {
+        double utility = utility(choice);
+        if (!numbered) {
+            return new BidDetails(newBid(choice), utility);
+        }
+
+        long number = 0;
+        for (int d = 0; d < values.length; d++) {
+            number += valueIndices[d][choice[d]] * radix[issueIndices[d]];
+        }
+        BidDetails bidDetails = generatedBids.get(number);
+        if (bidDetails == null) {
+            bidDetails = previousBids.get(number);
+        }
+        if (bidDetails == null) {
+            bidDetails = new BidDetails(newBid(choice), utility);
+        } else if (bidDetails.getMyUndiscountedUtil() != utility) {
+            bidDetails = new BidDetails(bidDetails.getBid(), utility); // the utility changed since it was generated
+        }
+        generatedBids.put(number, bidDetails);
+        return bidDetails;
+    }
+
+    /**
+     * @param choice chosen value index of every issue, in branching order
+     * @return new bid with the chosen values
+     */
+    private Bid newBid(int[] choice) {
+        HashMap<Integer, Value> bidValues = new HashMap<>();
+        for (int d = 0; d < values.length; d++) {
+            bidValues.put(issueNumbers[d], values[d][choice[d]]);
+        }
+        return new Bid(domain, bidValues);
+    }
+
+    /**
+     * @param bid bid of this domain
+     * @return position of the value of every issue in the sorted values, in branching order
+     */
+    private int[] toChoice(Bid bid) {
+        int[] choice = new int[values.length];
+        for (int d = 0; d < values.length; d++) {
+            int j = issueIndices[d];
+            choice[d] = valuePositions[j][bidCodec.valueIndex(bid, j)];
+        }
+        return choice;
+    }
+
+    /**
+     * @param choice chosen value index of every issue, in branching order
+     * @return utility of the chosen values, summed in branching order
+     */
+    private double utility(int[] choice) {
+        double utility = 0.0;
+        for (int d = 0; d < values.length; d++) {
+            utility += utilities[d][choice[d]];
+        }
+        return utility;
+    }
+
+    /**
+     * @param sortedUtilities utilities of the values of an issue, sorted descending
+     * @return difference between the highest and lowest utility
+     */
+    private static double range(double[] sortedUtilities) {
+        return sortedUtilities[0] - sortedUtilities[sortedUtilities.length - 1];
+    }
+}
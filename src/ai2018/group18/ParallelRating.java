@@ -0,0 +1,96 @@
+package ai2018.group18;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Rates a list of candidates in parallel on a shared fork-join pool. Every candidate is rated on its own,
+ * so the list is split in chunks that write their ratings to their own part of the output array.
+ */
+public final class ParallelRating {
+    private static final Map<Integer, ForkJoinPool> pools = new HashMap<>(); // one shared pool per parallelism
+
+    /**
+     * Rating of a single candidate, must be safe to call from several threads at once
+     */
+    public interface RatingFunction {
+        double rate(int index);
+    }
+
+    private ParallelRating() {
+    }
+
+    /**
+     * Rate candidates 0 until size, in parallel if there are at least threshold candidates
+     * @param size amount of candidates
+     * @param ratings output array, ratings[i] is the rating of candidate i
+     * @param ratingFunction rating of a single candidate
+     * @param parallelism amount of threads, 0 uses every core and 1 rates on the calling thread
+     * @param threshold minimal amount of candidates to rate in parallel, also the smallest chunk size
+     */
+    public static void rate(int size, double[] ratings, RatingFunction ratingFunction, int parallelism,
+                            int threshold) {
+        if (parallelism == 1 || size < threshold) {
+            for (int i = 0; i < size; i++) {
+                ratings[i] = ratingFunction.rate(i);
+            }
+            return;
+        }
+
+        int chunkSize = Math.max(threshold / 2, 1);
+        getPool(parallelism).invoke(new RateTask(0, size, ratings, ratingFunction, chunkSize));
+    }
+
+    /**
+     * @param parallelism amount of threads, 0 for the common pool
+     * @return shared pool with this parallelism
+     */
+    static synchronized ForkJoinPool getPool(int parallelism) {
+        if (parallelism <= 0) {
+            return ForkJoinPool.commonPool();
+        }
+
+        ForkJoinPool pool = pools.get(parallelism);
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+            pools.put(parallelism, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * Splits the candidates in halves until a chunk is small enough to rate directly
+     */
+    private static class RateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final double[] ratings;
+        private final RatingFunction ratingFunction;
+        private final int chunkSize;
+
+        RateTask(int from, int to, double[] ratings, RatingFunction ratingFunction, int chunkSize) {
+            this.from = from;
+            this.to = to;
+            this.ratings = ratings;
+            this.ratingFunction = ratingFunction;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                for (int i = from; i < to; i++) {
+                    ratings[i] = ratingFunction.rate(i);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RateTask(from, middle, ratings, ratingFunction, chunkSize),
+                    new RateTask(middle, to, ratings, ratingFunction, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package ai2018.group18;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ranked list of encoded bids, split in blocks that count the values of their bids. The values of all bids from
+ * a position on can be counted by scanning one block and adding the counts of the blocks after it, so a bid can be
+ * inserted anywhere in the ranking without visiting every bid.
+ */
+class RankedBidBlocks {
+    private static final int BLOCK_SIZE = 512; // blocks are split when they reach twice this size
+    private final BidCodec bidCodec;
+    private final List<Block> blocks = new ArrayList<>();
+    private int size;
+
+    /**
+     * @param bidCodec codec of the domain, determines the order of the issues and values
+     */
+    RankedBidBlocks(BidCodec bidCodec) {
+        this.bidCodec = bidCodec;
+    }
+
+    /**
+     * @return amount of bids in the ranking
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Insert a bid in the ranking, the bids from this position on move up one position
+     * @param position position of the bid, between 0 (worst) and size() (best)
+     * @param encodedBid value index for every issue
+     */
+    void add(int position, int[] encodedBid) {
+        if (blocks.isEmpty()) {
+            blocks.add(new Block());
+        }
+
+        // find the block of this position, the end of the ranking belongs to the last block
+        int blockIndex = 0;
+        int offset = position;
+        if (position == size) {
+            blockIndex = blocks.size() - 1;
+            offset = blocks.get(blockIndex).size;
+        }
+        while (blockIndex < blocks.size() - 1 && offset >= blocks.get(blockIndex).size) {
+            offset -= blocks.get(blockIndex).size;
+            blockIndex++;
+        }
+
+        Block block = blocks.get(blockIndex);
+        block.add(offset, encodedBid);
+        if (block.size == 2 * BLOCK_SIZE) {
+            blocks.add(blockIndex + 1, block.split());
+        }
+        size++;
+    }
+
+    /**
+     * Count the values of the bids from a position on
+     * @param position first position to count
+     * @param counts receives counts[issueIndex][valueIndex], must be filled with zeros
+     */
+    void countFrom(int position, long[][] counts) {
+        int blockIndex = 0;
+        int offset = position;
+        while (blockIndex < blocks.size() && offset >= blocks.get(blockIndex).size) {
+            offset -= blocks.get(blockIndex).size;
+            blockIndex++;
+        }
+        if (blockIndex == blocks.size()) {
+            return;
+        }
+
+        // scan the rest of the first block
+        Block block = blocks.get(blockIndex);
+        for (int b = offset; b < block.size; b++) {
+            int[] encodedBid = block.bids[b];
+            for (int j = 0; j < encodedBid.length; j++) {
+                counts[j][encodedBid[j]]++;
+            }
+        }
+
+        // add the counts of the blocks after it
+        for (int i = blockIndex + 1; i < blocks.size(); i++) {
+            int[][] blockCounts = blocks.get(i).counts;
+            for (int j = 0; j < blockCounts.length; j++) {
+                for (int k = 0; k < blockCounts[j].length; k++) {
+                    counts[j][k] += blockCounts[j][k];
+                }
+            }
+        }
+    }
+
+    /**
+     * Consecutive bids of the ranking with the counts of their values
+     */
+    private class Block {
+        private final int[][] bids = new int[2 * BLOCK_SIZE][];
+        private final int[][] counts = new int[bidCodec.getNumberOfIssues()][];
+        private int size;
+
+        Block() {
+            for (int j = 0; j < counts.length; j++) {
+                counts[j] = new int[bidCodec.getNumberOfValues(j)];
+            }
+        }
+
+        void add(int offset, int[] encodedBid) {
+            System.arraycopy(bids, offset, bids, offset + 1, size - offset);
+            bids[offset] = encodedBid;
+            size++;
+            count(encodedBid, 1);
+        }
+
+        /**
+         * Move the second half of this block to a new block
+         * @return the new block
+         */
+        Block split() {
+            Block secondHalf = new Block();
+            for (int b = BLOCK_SIZE; b < size; b++) {
+                secondHalf.bids[secondHalf.size++] = bids[b];
+                secondHalf.count(bids[b], 1);
+                count(bids[b], -1);
+                bids[b] = null;
+            }
+            size = BLOCK_SIZE;
+            return secondHalf;
+        }
+
+        private void count(int[] encodedBid, int increment) {
+            for (int j = 0; j < encodedBid.length; j++) {
+                counts[j][encodedBid[j]] += increment;
+            }
+        }
+    }
+}
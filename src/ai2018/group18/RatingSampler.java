@@ -0,0 +1,78 @@
+package ai2018.group18;
+
+/**
+ * Draws a bid index from an array of ratings, where bids with a higher rating have a higher probability
+ * to be chosen. Uses a few linear passes over the ratings and does not allocate.
+ */
+public final class RatingSampler {
+
+    private RatingSampler() {
+    }
+
+    /**
+     * Sample a rating between the lowest and highest rating with more bias towards the highest rating,
+     * snap it to the closest rating and choose uniformly between the bids with that rating
+     * @param ratings rating of every available bid
+     * @param size amount of ratings in use
+     * @param bias amount of bias towards highest rating (between 0 and 1)
+     * @return index of the chosen bid
+     */
+    public static int draw(double[] ratings, int size, double bias) {
+        double lowestRating = 0;
+        double highestRating = -1.0 * Double.MAX_VALUE;
+
+        // find lowest and highest rating
+        for (int i = 0; i < size; i++) {
+            double rating = ratings[i];
+            if (rating > highestRating) {
+                highestRating = rating;
+            }
+            if (rating < lowestRating) {
+                lowestRating = rating;
+            }
+        }
+
+        // sample a double between lowest rating and highest rating, with more bias towards highest rating
+        double sampleRating = lowestRating + (highestRating - lowestRating) * Math.pow(Math.random(), bias);
+
+        // find the closest ratings below (floor) and above (ceiling) the sample rating
+        double floor = Double.NEGATIVE_INFINITY;
+        double ceiling = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            double rating = ratings[i];
+            if (rating <= sampleRating && rating > floor) {
+                floor = rating;
+            }
+            if (rating >= sampleRating && rating < ceiling) {
+                ceiling = rating;
+            }
+        }
+
+        // check which rating is closer to sample rating
+        double closestRating;
+        if ((ceiling - sampleRating) < (sampleRating - floor)) {
+            closestRating = ceiling;
+        } else {
+            closestRating = floor;
+        }
+
+        // choose random bid from the bids with the closest rating
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (ratings[i] == closestRating) {
+                count++;
+            }
+        }
+        int chosen = (int) (Math.random() * count);
+        for (int i = 0; i < size; i++) {
+            if (ratings[i] == closestRating) {
+                if (chosen == 0) {
+                    return i;
+                }
+                chosen--;
+            }
+        }
+
+        return 0;
+    }
+}
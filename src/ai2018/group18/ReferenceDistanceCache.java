@@ -0,0 +1,114 @@
+package ai2018.group18;
+
+import genius.core.Bid;
+
+import java.util.Arrays;
+
+/**
+ * Caches the distance of every candidate bid to every reference bid of the opponent.
+ * Each reference bid and the issue weights carry a version stamp, a cached distance is only
+ * recomputed when the reference bid or the issue weights changed after it was computed.
+ * The cache is trimmed together with the codec, so it never grows much beyond the current band.
+ */
+public class ReferenceDistanceCache {
+    private static final int MIN_TRIM_SIZE = 1024; // small codecs are never trimmed
+    private final BidCodec bidCodec;
+    private final DistanceTable distanceTable;
+    private final int[] referenceOrdinals; // ordinal of the current bid of every reference
+    private final int[] referenceVersions; // version of every reference, zero until the first bid is set
+    private int weightsVersion;
+    private double[][] distances; // distances[reference][candidateOrdinal]
+    private long[][] stamps; // weights version and reference version when the distance was computed
+
+    /**
+     * Constructor for a fixed amount of reference bids
+     * @param bidCodec codec that assigns ordinals to candidate bids
+     * @param distanceTable distance table of this domain
+     * @param numberOfReferences amount of reference bids
+     */
+    public ReferenceDistanceCache(BidCodec bidCodec, DistanceTable distanceTable, int numberOfReferences) {
+        this.bidCodec = bidCodec;
+        this.distanceTable = distanceTable;
+        referenceOrdinals = new int[numberOfReferences];
+        referenceVersions = new int[numberOfReferences];
+        Arrays.fill(referenceOrdinals, -1);
+        distances = new double[numberOfReferences][0];
+        stamps = new long[numberOfReferences][0];
+    }
+
+    /**
+     * Forget every numbered bid once the codec holds far more bids than the next batch of candidates, so bids that
+     * left the band do not stay reachable for the rest of the session. Call before the reference bids are set.
+     * @param numberOfCandidates amount of candidates that will be rated next
+     */
+    public void trim(int numberOfCandidates) {
+        if (bidCodec.size() <= 2 * numberOfCandidates + MIN_TRIM_SIZE) {
+            return;
+        }
+        bidCodec.clear();
+        Arrays.fill(referenceOrdinals, -1); // every reference gets a new version when it is set again
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = new double[0];
+            stamps[i] = new long[0];
+        }
+    }
+
+    /**
+     * Set the issue weights, all cached distances become stale if the weights changed
+     * @param issueWeights issue weights of the opponent model
+     */
+    public void setIssueWeights(double[] issueWeights) {
+        if (distanceTable.setIssueWeights(issueWeights)) {
+            weightsVersion++;
+        }
+    }
+
+    /**
+     * Set a reference bid, the cached distances to this reference become stale if the bid changed
+     * @param reference index of the reference (first, best or last)
+     * @param bid reference bid
+     */
+    public void setReferenceBid(int reference, Bid bid) {
+        int ordinal = bidCodec.ordinal(bid);
+        if (ordinal != referenceOrdinals[reference]) {
+            referenceOrdinals[reference] = ordinal;
+            referenceVersions[reference]++;
+        }
+    }
+
+    /**
+     * Distance of a candidate to a reference bid, computed only if there is no up to date cached distance
+     * @param reference index of the reference (first, best or last)
+     * @param candidate ordinal of the candidate bid
+     * @return weighted euclidean distance
+     */
+    public double distance(int reference, int candidate) {
+        if (candidate >= stamps[reference].length) {
+            ensureCapacity(candidate + 1);
+        }
+
+        long stamp = ((long) weightsVersion << 32) | referenceVersions[reference];
+        if (stamps[reference][candidate] != stamp) {
+            int[] referenceBid = bidCodec.encoded(referenceOrdinals[reference]);
+            distances[reference][candidate] = distanceTable.distance(bidCodec.encoded(candidate), referenceBid);
+            stamps[reference][candidate] = stamp;
+        }
+        return distances[reference][candidate];
+    }
+
+    /**
+     * Make room for at least the given amount of candidates. Distances of candidates that fit can be
+     * computed from several threads at once, as long as every thread rates different candidates.
+     * @param minimumSize
+     */
+    public void ensureCapacity(int minimumSize) {
+        if (minimumSize <= stamps[0].length) {
+            return;
+        }
+        int newSize = Math.max(minimumSize, Math.max(bidCodec.size(), 2 * stamps[0].length));
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = Arrays.copyOf(distances[i], newSize);
+            stamps[i] = Arrays.copyOf(stamps[i], newSize);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ai2018.group18;
+
+/**
+ * Plain loops, the JIT may still auto-vectorize them
+ */
+public class ScalarDistanceKernel implements DistanceKernel {
+
+    @Override
+    public void addSquaredDifferences(double[] column, double reference, double weight, double[] sums, int size) {
+        for (int c = 0; c < size; c++) {
+            double diff = weight * (column[c] - reference);
+            sums[c] += diff * diff;
+        }
+    }
+
+    @Override
+    public void subtractDistances(double[] sums, double gamma, double[] ratings, int size) {
+        for (int c = 0; c < size; c++) {
+            ratings[c] -= gamma * Math.sqrt(sums[c]);
+        }
+    }
+}
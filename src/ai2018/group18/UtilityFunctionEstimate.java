@@ -1,20 +1,33 @@
 package ai2018.group18;
 
 import genius.core.Bid;
-import genius.core.issue.*;
+import genius.core.issue.Objective;
+import genius.core.issue.ValueDiscrete;
 import genius.core.utility.AdditiveUtilitySpace;
 import genius.core.utility.Evaluator;
 import genius.core.utility.EvaluatorDiscrete;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
 
 public class UtilityFunctionEstimate {
+    // the same few bids (first, best and last bids) are evaluated again and again
+    private static final int CACHE_SIZE = 4;
     private AdditiveUtilitySpace utilitySpace;
-    private List<Bid> rankingList;
-    private List<Integer> issueNumbers;
-    private List<Issue> issuesInThisDomain;
-    private Map<Integer, Map<String, Double>> valueWeights;
-    private Map<Integer, Double> issueWeights;
+    private BidCodec bidCodec;
+    private RankedBidBlocks ranking; // ranked list of bids, from worst to best
+    private long[][] counts; // amount of ranked bids with every value: counts[issueIndex][valueIndex]
+    private long[][] rankSums; // sum of the positions of these bids: rankSums[issueIndex][valueIndex]
+    private long[][] shifts; // reused when a bid is added
+    private double[][] valueWeights; // valueWeights[issueIndex][valueIndex]
+    private double[] issueWeights; // issueWeights[issueIndex]
+    private CompiledEvaluator compiledEstimate; // issue weight * value weight of every value
+    private final Bid[] cachedBids = new Bid[CACHE_SIZE]; // last evaluated bid objects
+    private final double[] cachedUtilities = new double[CACHE_SIZE]; // estimated utility of these bids
+    private int nextCacheSlot;
+    private int version; // incremented every time a ranked bid is added
 
     /**
      * Constructor that estimates the value and issue weights given the ranked list of bids
@@ -22,179 +35,280 @@ public class UtilityFunctionEstimate {
      * @param rankingList
      */
     public UtilityFunctionEstimate(AdditiveUtilitySpace utilitySpace, List<Bid> rankingList) {
+        this(utilitySpace, rankingList, 0, 10000);
+    }
+
+    /**
+     * Constructor that estimates the value and issue weights given the ranked list of bids. Long rankings are split
+     * in chunks that are counted in parallel, each chunk in its own partial matrices that are merged afterwards.
+     * @param utilitySpace
+     * @param rankingList
+     * @param parallelism amount of threads, 0 uses every core and 1 counts on the calling thread
+     * @param threshold minimal amount of bids to count in parallel, also the smallest chunk size
+     */
+    public UtilityFunctionEstimate(AdditiveUtilitySpace utilitySpace, List<Bid> rankingList, int parallelism,
+                                   int threshold) {
         // save utilitySpace
         this.utilitySpace = utilitySpace;
 
-        // get ranked list of bids
-        this.rankingList = rankingList;
+        // issues and values are numbered in the order of the domain
+        bidCodec = new BidCodec(utilitySpace.getDomain());
+        ranking = new RankedBidBlocks(bidCodec);
+        shifts = initializeMatrix();
 
-        // get list of issue numbers and list of issues
-        issueNumbers = new ArrayList<>();
-        issuesInThisDomain = utilitySpace.getDomain().getIssues();
-        for (Issue issue : issuesInThisDomain) {
-            issueNumbers.add(issue.getNumber());
+        // frequency analysis of every bid i from the ranked list
+        int[][] encodedBids = new int[rankingList.size()][];
+        boolean sequential = parallelism == 1 || rankingList.size() < threshold;
+        FrequencyTask frequencyTask = new FrequencyTask(rankingList, encodedBids, 0, rankingList.size(),
+                sequential ? Integer.MAX_VALUE : Math.max(threshold / 2, 1));
+        if (sequential) {
+            frequencyTask.compute();
+        } else {
+            ParallelRating.getPool(parallelism).invoke(frequencyTask);
+        }
+        counts = frequencyTask.counts;
+        rankSums = frequencyTask.rankSums;
+        for (int i = 0; i < encodedBids.length; i++) {
+            ranking.add(i, encodedBids[i]);
         }
 
         // estimate value and issue weights
-        valueWeights = estimateValueWeights();
-        issueWeights = estimateIssueWeights();
+        estimateWeights();
 
         // set utility space with estimated value and issue weights
         setWeightsOfUtilitySpace();
     }
 
     /**
-     * Estimate value weights with linearly spaced vector from 0 to 1
-     * @return normalized value weights matrix
+     * Add a newly ranked bid, for example after preference elicitation, and update the value and issue weights.
+     * Every bid from this position on moves up one position, so their linearly spaced utility changes as well.
+     * Only one block of the ranking is scanned, the other blocks add their value counts.
+     * @param bid
+     * @param position position in the current ranking, between 0 (worst) and the size of the ranking (best)
      */
-    private Map<Integer, Map<String, Double>> estimateValueWeights() {
-        // initialize linearly spaced vector and an empty matrix:
-        // Map<issueNumber, Map<valueString, 0.0>>
-        List<Double> linearUtility = linspace(0.0, 1.0, rankingList.size());
-        Map<Integer, Map<String, Double>> valueWeights = initializeMatrix();
-
-        // compute matrix with weighted frequency analysis:
-        // Map<issueNumber, Map<valueString, weightedFrequency>>
-        computeWeightedFrequency(valueWeights, linearUtility);
-
-        // normalize issue columns by dividing by the max of each column
-        for (int issueNumber : issueNumbers) {
-            Map<String, Double> issueValues = valueWeights.get(issueNumber);
-            double max = Collections.max(issueValues.values());
+    public void addRankedBid(Bid bid, int position) {
+        if (position < 0 || position > ranking.size()) {
+            throw new IllegalArgumentException("Position " + position + " is not in a ranking of " + ranking.size()
+                    + " bids");
+        }
 
-            for (Map.Entry<String, Double> entry : issueValues.entrySet()) {
-                issueValues.put(entry.getKey(), entry.getValue() / max);
+        // the bids from this position on move up one position
+        for (long[] shiftsOfIssue : shifts) {
+            Arrays.fill(shiftsOfIssue, 0);
+        }
+        ranking.countFrom(position, shifts);
+        for (int j = 0; j < rankSums.length; j++) {
+            for (int k = 0; k < rankSums[j].length; k++) {
+                rankSums[j][k] += shifts[j][k];
             }
-            valueWeights.put(issueNumber, issueValues);
         }
 
-        return valueWeights;
+        int[] encodedBid = bidCodec.encode(bid, new int[bidCodec.getNumberOfIssues()]);
+        count(encodedBid, position);
+        ranking.add(position, encodedBid);
+
+        estimateWeights();
+        setWeightsOfUtilitySpace();
+        version++;
+    }
+
+    /**
+     * @return version of the estimate, changes every time a ranked bid is added
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return amount of ranked bids with every value: counts[issueIndex][valueIndex], do not modify it
+     */
+    long[][] getCounts() {
+        return counts;
+    }
+
+    /**
+     * @return sum of the positions of these bids: rankSums[issueIndex][valueIndex], do not modify it
+     */
+    long[][] getRankSums() {
+        return rankSums;
+    }
+
+    /**
+     * @param encodedBid value index for every issue
+     * @param position position of the bid in the ranking
+     */
+    private void count(int[] encodedBid, int position) {
+        count(encodedBid, position, counts, rankSums);
+    }
+
+    /**
+     * @param encodedBid value index for every issue
+     * @param position position of the bid in the ranking
+     * @param counts amount of bids with every value
+     * @param rankSums sum of the positions of these bids
+     */
+    private static void count(int[] encodedBid, int position, long[][] counts, long[][] rankSums) {
+        for (int j = 0; j < encodedBid.length; j++) {
+            counts[j][encodedBid[j]]++;
+            rankSums[j][encodedBid[j]] += position;
+        }
     }
 
     /**
-     * Estimate issue weights with linearly spaced vector from -1 to 1
-     * @return normalized issue weights vector
+     * Counts and rank sums of a chunk of the ranking. Chunks that are too large are split in halves, of which the
+     * partial matrices are added up. The sums are integers, so the result does not depend on the chunks.
      */
-    private Map<Integer, Double> estimateIssueWeights() {
-        // initialize linearly spaced vector and an empty matrix:
-        // Map<issueNumber, Map<valueString, 0.0>>
-        List<Double> linearUtility = linspace(-1.0, 1.0, rankingList.size());
-        Map<Integer, Map<String, Double>> matrix = initializeMatrix();
+    private class FrequencyTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final List<Bid> rankingList;
+        private final int[][] encodedBids;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+        private long[][] counts;
+        private long[][] rankSums;
+
+        FrequencyTask(List<Bid> rankingList, int[][] encodedBids, int from, int to, int chunkSize) {
+            this.rankingList = rankingList;
+            this.encodedBids = encodedBids;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
 
-        // compute matrix with weighted frequency analysis:
-        // Map<issueNumber, Map<valueString, weightedFrequency>>
-        computeWeightedFrequency(matrix, linearUtility);
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                counts = initializeMatrix();
+                rankSums = initializeMatrix();
+                for (int i = from; i < to; i++) {
+                    encodedBids[i] = bidCodec.encode(rankingList.get(i), new int[bidCodec.getNumberOfIssues()]);
+                    count(encodedBids[i], i, counts, rankSums);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            FrequencyTask lower = new FrequencyTask(rankingList, encodedBids, from, middle, chunkSize);
+            FrequencyTask upper = new FrequencyTask(rankingList, encodedBids, middle, to, chunkSize);
+            invokeAll(lower, upper);
+
+            // merge the partial matrices
+            counts = lower.counts;
+            rankSums = lower.rankSums;
+            for (int j = 0; j < counts.length; j++) {
+                for (int k = 0; k < counts[j].length; k++) {
+                    counts[j][k] += upper.counts[j][k];
+                    rankSums[j][k] += upper.rankSums[j][k];
+                }
+            }
+        }
+    }
 
-        // get issue weights vector by taking the max of each issue column:
-        // Map<issueNumber, weightedFrequency>
-        Map<Integer, Double> issueWeights = new HashMap<>();
+    /**
+     * Estimate value weights with a linearly spaced vector from 0 to 1 and issue weights with a linearly spaced
+     * vector from -1 to 1. Bid i of n gets utility u_i = start + i * (end - start) / n, so the weighted frequency of
+     * a value is start * count + (end - start) / n * sum of positions, which only needs the counts and rank sums.
+     */
+    private void estimateWeights() {
+        int n = ranking.size();
+        valueWeights = new double[counts.length][];
+        issueWeights = new double[counts.length];
         double sumIssueWeights = 0.0;
-        for (int issueNumber : issueNumbers) {
-            Map<String, Double> issueValues = matrix.get(issueNumber);
-            double max = Collections.max(issueValues.values());
-            issueWeights.put(issueNumber, max);
-            sumIssueWeights += max;
+
+        for (int j = 0; j < counts.length; j++) {
+            // weighted frequency with linear utility from 0 to 1 for the values
+            // and from -1 to 1 for the issues
+            valueWeights[j] = new double[counts[j].length];
+            double[] issueColumn = new double[counts[j].length];
+            for (int k = 0; k < counts[j].length; k++) {
+                valueWeights[j][k] = weightedFrequency(j, k, 0.0, 1.0, n);
+                issueColumn[k] = weightedFrequency(j, k, -1.0, 1.0, n);
+            }
+
+            // normalize issue columns of the value weights by dividing by the max of each column
+            double max = max(valueWeights[j]);
+            for (int k = 0; k < valueWeights[j].length; k++) {
+                valueWeights[j][k] = valueWeights[j][k] / max;
+            }
+
+            // get issue weights vector by taking the max of each issue column
+            issueWeights[j] = max(issueColumn);
+            sumIssueWeights += issueWeights[j];
         }
 
         // normalize issue weights vector by dividing by the sum of the vector
-        for (Map.Entry<Integer, Double> entry : issueWeights.entrySet()) {
-            issueWeights.put(entry.getKey(), entry.getValue() / sumIssueWeights);
+        for (int j = 0; j < issueWeights.length; j++) {
+            issueWeights[j] = issueWeights[j] / sumIssueWeights;
+        }
+
+        // compile the estimate into one table and forget the cached utilities
+        if (compiledEstimate == null) {
+            compiledEstimate = new CompiledEvaluator(bidCodec);
+        }
+        for (int j = 0; j < issueWeights.length; j++) {
+            compiledEstimate.setIssue(j, issueWeights[j], valueWeights[j]);
         }
+        Arrays.fill(cachedBids, null);
+    }
 
-        return issueWeights;
+    /**
+     * @param issueIndex
+     * @param valueIndex
+     * @param start first value of the linspace
+     * @param end end of the linspace
+     * @param n size of the ranking
+     * @return sum of the linearly spaced utilities of the bids with this value
+     */
+    private double weightedFrequency(int issueIndex, int valueIndex, double start, double end, int n) {
+        return start * counts[issueIndex][valueIndex] + (end - start) / n * rankSums[issueIndex][valueIndex];
     }
 
     /**
      * After estimating value and issue weights, add them to utility space
      */
     private void setWeightsOfUtilitySpace() {
-        // for every issue in this domain
         for (Map.Entry<Objective, Evaluator> e : utilitySpace.getEvaluators()) {
-
             // clear a lock on the weight of an objective or issue.
             utilitySpace.unlock(e.getKey());
+        }
 
+        // for every issue in this domain
+        for (int j = 0; j < issueWeights.length; j++) {
             // set issue weight for this issue
-            int issueNumber = e.getKey().getNumber();
-            double issueWeight = issueWeights.get(issueNumber);
-            e.getValue().setWeight(issueWeight);
+            EvaluatorDiscrete evaluator = (EvaluatorDiscrete) utilitySpace.getEvaluator(bidCodec.getIssueNumber(j));
+            evaluator.setWeight(issueWeights[j]);
 
             // set all values weights for this issue
-            Map<String, Double> valueWeightsForThisIssue = valueWeights.get(issueNumber);
-            for (ValueDiscrete valueDiscrete : ((IssueDiscrete) e.getKey()).getValues()) {
-                double valueWeight = valueWeightsForThisIssue.get(valueDiscrete.getValue());
-                ((EvaluatorDiscrete) e.getValue()).setEvaluationDouble(valueDiscrete, valueWeight);
+            List<ValueDiscrete> values = bidCodec.getIssue(j).getValues();
+            for (int k = 0; k < values.size(); k++) {
+                evaluator.setEvaluationDouble(values.get(k), valueWeights[j][k]);
             }
         }
     }
 
     /**
      * Initialize empty matrix
-     * @return Map<issueNumber, Map<valueString, zero>>
+     * @return matrix[issueIndex][valueIndex] filled with zeros
      */
-    private Map<Integer, Map<String, Double>> initializeMatrix() {
-        Map<Integer, Map<String, Double>> matrix = new HashMap<>();
-
-        // create column for each issue
-        for (Issue issue : issuesInThisDomain) {
-            IssueDiscrete issueDiscrete = (IssueDiscrete) issue;
-
-            // fill column with zeros
-            Map<String, Double> issueValues = new HashMap<>();
-            for (ValueDiscrete valueDiscrete : issueDiscrete.getValues()) {
-                issueValues.put(valueDiscrete.getValue(), 0.0);
-            }
-            matrix.put(issue.getNumber(), issueValues);
+    private long[][] initializeMatrix() {
+        long[][] matrix = new long[bidCodec.getNumberOfIssues()][];
+        for (int j = 0; j < matrix.length; j++) {
+            matrix[j] = new long[bidCodec.getNumberOfValues(j)];
         }
-
         return matrix;
     }
 
     /**
-     * Compute matrix with weighted frequency analysis: Map<issueNumber, Map<valueString, weightedFrequency>>
-     * @param matrix
-     * @param linearUtility
-     */
-    private void computeWeightedFrequency(Map<Integer, Map<String, Double>> matrix, List<Double> linearUtility) {
-        // frequency analysis of every bid i from the ranked list
-        for (int i = 0; i < rankingList.size(); i++) {
-            Map<Integer, Value> bidValues = rankingList.get(i).getValues();
-
-            // for every issue add linearly spaced utility u_i to the matrix
-            for (Issue issue : issuesInThisDomain) {
-                int issueNumber = issue.getNumber();
-                ValueDiscrete valueDiscrete = (ValueDiscrete) bidValues.get(issueNumber);
-
-                // add u_i to the corresponding issue-value in the matrix
-                Map<String, Double> values = matrix.get(issueNumber);
-                double currentValue = values.get(valueDiscrete.getValue());
-                double newValue = currentValue + linearUtility.get(i);
-                values.replace(valueDiscrete.getValue(), newValue);
-                matrix.replace(issueNumber, values);
-            }
-        }
-    }
-
-    /**
-     * Generate linearly spaced vector
-     * @param start
-     * @param end
-     * @param n
-     * @return
+     * @param column
+     * @return highest entry of the column
      */
-    private List<Double> linspace(double start, double end, int n) {
-        List<Double> vector = new ArrayList<>();
-        double step = (end - start) / n;
-
-        double current = start;
-        for (int i = 0; i < n; i++) {
-            vector.add(current + i * step);
+    private static double max(double[] column) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double entry : column) {
+            max = Math.max(max, entry);
         }
-        assert vector.size() == n;
-        assert vector.get(0) == start;
-        assert vector.get(n - 1) == end;
-
-        return vector;
+        return max;
     }
 
     /**
@@ -203,22 +317,27 @@ public class UtilityFunctionEstimate {
      * @return
      */
     public Double getUtilityEstimate(Bid bid) {
-        double utility = 0.0;
-
-        Map<Integer, Value> bidValues = bid.getValues();
-        for (Issue issue : issuesInThisDomain) {
-            int issueNumber = issue.getNumber();
-            ValueDiscrete valueDiscrete = (ValueDiscrete) bidValues.get(issueNumber);
-
-            // add utility contribution for this issue
-            double issueWeight = issueWeights.get(issueNumber);
-            double valueWeight = valueWeights.get(issueNumber).get(valueDiscrete.getValue());
-            utility += issueWeight * valueWeight;
+        // the same bid object as one of the last evaluated bids
+        for (int i = 0; i < CACHE_SIZE; i++) {
+            if (cachedBids[i] == bid) {
+                return cachedUtilities[i];
+            }
         }
 
+        double utility = compiledEstimate.evaluate(bid);
+        cachedBids[nextCacheSlot] = bid;
+        cachedUtilities[nextCacheSlot] = utility;
+        nextCacheSlot = (nextCacheSlot + 1) % CACHE_SIZE;
         return utility;
     }
 
+    /**
+     * @return the estimate compiled into a table of issue weight * value weight, do not modify it
+     */
+    public CompiledEvaluator getCompiledEstimate() {
+        return compiledEstimate;
+    }
+
     /**
      *
      * @return AdditiveUtilitySpace with the estimated value and issue weights
@@ -0,0 +1,45 @@
+package ai2018.group18;
+
+import genius.core.Bid;
+import genius.core.boaframework.NegotiationSession;
+import genius.core.uncertainty.UserModel;
+import genius.core.utility.AdditiveUtilitySpace;
+
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * One UtilityFunctionEstimate per negotiation session, shared by the acceptance strategy, bidding strategy and
+ * opponent model strategy of that session. The estimate is built by the first component that asks for it and
+ * is dropped together with the session.
+ */
+public final class UtilityFunctionEstimateRegistry {
+    private static final Map<NegotiationSession, UtilityFunctionEstimate> estimates = new WeakHashMap<>();
+
+    private UtilityFunctionEstimateRegistry() {
+    }
+
+    /**
+     * @param negotiationSession
+     * @return estimate of the utility function from the bid ranking of the user model of this session,
+     * null if "enable uncertainty" is unchecked
+     */
+    public static synchronized UtilityFunctionEstimate get(NegotiationSession negotiationSession) {
+        UserModel userModel = negotiationSession.getUserModel();
+        if (userModel == null) {
+            return null;
+        }
+
+        UtilityFunctionEstimate utilityFunctionEstimate = estimates.get(negotiationSession);
+        if (utilityFunctionEstimate == null) {
+            // create utility space with estimated preferences
+            List<Bid> bidOrder = userModel.getBidRanking().getBidOrder();
+            AdditiveUtilitySpace utilitySpaceEstimate =
+                    (AdditiveUtilitySpace) negotiationSession.getUtilitySpace().copy();
+            utilityFunctionEstimate = new UtilityFunctionEstimate(utilitySpaceEstimate, bidOrder);
+            estimates.put(negotiationSession, utilityFunctionEstimate);
+        }
+        return utilityFunctionEstimate;
+    }
+}